@@ -31,6 +31,7 @@ import org.civilian.content.ContentType;
 import org.civilian.content.GsonJsonSerializer;
 import org.civilian.content.TextSerializer;
 import org.civilian.controller.ControllerConfig;
+import org.civilian.controller.ControllerIndex;
 import org.civilian.controller.ControllerNaming;
 import org.civilian.controller.ControllerService;
 import org.civilian.controller.classloader.ReloadConfig;
@@ -268,7 +269,9 @@ public abstract class Application implements ApplicationProvider, ContextProvide
 			resourceConfig_.getPathParams(), 
 			getTypeLib(), 
 			appConfig.getControllerFactory(),
+			appConfig.getMethodInvokerFactory(),
 			appConfig.getReloadConfig());
+		preloadControllerTypes();
 			
 		// init the resource tree
 		rootResource_ = appConfig.getRootResource();
@@ -278,10 +281,29 @@ public abstract class Application implements ApplicationProvider, ContextProvide
 		Resource.Tree tree = rootResource_.getTree();
 		tree.setAppPath(getPath());
 		tree.setDefaultExtension(appConfig.getDefaultResExtension());
+		tree.setMatchCacheSize(appConfig.getMatchCacheSize());
 		tree.setControllerService(controllerService_);
 	}
 	
 	
+	/**
+	 * Builds all ControllerTypes at startup if the application
+	 * has a {@link ControllerIndex controller index}.
+	 */
+	private void preloadControllerTypes() throws Exception
+	{
+		if (!controllerService_.isReloading())
+		{
+			ControllerIndex index = ControllerIndex.load(getClass());
+			if (index != null)
+			{
+				int count = controllerService_.preload(index);
+				log.debug("{}: preloaded {} of {} controller types", getId(), count, index.size());
+			}
+		}
+	}
+	
+	
 	static class InitResult
 	{
 		boolean success;
@@ -332,10 +354,33 @@ public abstract class Application implements ApplicationProvider, ContextProvide
 	{
 		AssetService service = AssetServices.combine(Path.ROOT, config.getLocations());
 		if (config.getLocationCount() > 0)
-			service = AssetServices.makeCaching(service, config.getMaxCachedSize()); 
+			service = AssetServices.makeCaching(service, config);
 		service.init(getPath(), getEncoding(), config.getContentTypeLookup());
+		preloadAssets(service, config);
 		return service;
 	}
+
+
+	/**
+	 * Loads the assets matching the preload patterns of the AssetConfig
+	 * into the asset cache.
+	 */
+	private void preloadAssets(AssetService service, AssetConfig config)
+	{
+		String[] patterns = config.getPreloads();
+		if ((patterns.length > 0) && service.hasAssets())
+		{
+			try
+			{
+				int count = AssetServices.preload(service, patterns, config.getPreloadThreads());
+				log.debug("{}: preloaded {} assets", getId(), count);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
 	
 	
 	private void initProcessors(Settings settings) throws Exception
@@ -421,6 +466,8 @@ public abstract class Application implements ApplicationProvider, ContextProvide
 		try
 		{
 			processors_.close();
+			if (assetService_ != null)
+				assetService_.close();
 		}
 		finally
 		{
@@ -156,7 +156,8 @@ public class Controller implements
 		Check.notNull(request, "request");
 		if (request_ != null)
 			throw new IllegalStateException("already processing");
-		request_ = request;
+		request_ 	= request;
+		exception_	= null; // the controller may be reused
 	}
 	
 
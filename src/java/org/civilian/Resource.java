@@ -37,10 +37,12 @@ import org.civilian.resource.Path;
 import org.civilian.resource.PathParam;
 import org.civilian.resource.PathScanner;
 import org.civilian.resource.Route;
+import org.civilian.resource.RouteParams;
 import org.civilian.resource.Url;
 import org.civilian.util.ArrayUtil;
 import org.civilian.util.Check;
 import org.civilian.util.IoUtil;
+import org.civilian.util.LruCache;
 
 
 /**
@@ -71,6 +73,7 @@ public class Resource implements Iterable<Resource>
 		tree_		= new Tree(this);
 		segment_	= "";
 		pathParam_	= null;
+		ppIndex_	= -1;
 	}
 	
 	
@@ -118,12 +121,14 @@ public class Resource implements Iterable<Resource>
 			segment_ 	= segment;
 			pathParam_	= null;
 			route_		= parent.route_.add(segment);
+			ppIndex_	= -1;
 		}
 		else
 		{
 			segment_ 	= null;
 			pathParam_	= pathParam;
 			route_		= parent.route_.add(pathParam);
+			ppIndex_	= route_.getPathParamCount() - 1;
 			
 			Resource p  = parent;
 			while(p != null)
@@ -154,7 +159,9 @@ public class Resource implements Iterable<Resource>
 	{
 		Resource[] children = ArrayUtil.addLast(children_, resource);
 		Arrays.sort(children, COMPARATOR);
-		children_ = children;
+		index_ 		= new ChildIndex(children);
+		children_ 	= children;
+		tree_.clearMatchCache();
 	}
 	
 	
@@ -250,6 +257,7 @@ public class Resource implements Iterable<Resource>
 		tree_.mapResource(this, ctrlSignature_, signature);
 		ctrlSignature_ = signature;
 		initTypeProvider(false);
+		tree_.clearMatchCache();
 	}
 	
 	
@@ -334,6 +342,82 @@ public class Resource implements Iterable<Resource>
 	}
 	
 	
+	/**
+	 * Finds the descendant resource of this resource which matches
+	 * the path, and stores the result in the MatchContext.
+	 * Unlike {@link #match(String)} this method does not allocate
+	 * objects if the context is reused and no path params are recognized.
+	 * If this is the root resource and the tree has a match cache 
+	 * (see {@link Tree#setMatchCacheSize(int)}), complete matches are cached.
+	 * @param path a path string
+	 * @param context receives the result of the match operation
+	 */
+	public void match(String path, MatchContext context)
+	{
+		LruCache<String,CachedMatch> cache = (parent_ == null) && (path != null) ? tree_.matchCache_ : null;
+		if (cache != null)
+		{
+			CachedMatch cm = cache.get(path);
+			if (cm != null)
+			{
+				context.resource		= cm.resource;
+				context.completeMatch	= true;
+				context.params_			= cm.params;
+				return;
+			}
+		}
+		
+		PathScanner scanner 	= context.scanner_;
+		Resource resource 		= this;
+		boolean completeMatch	= true;
+		context.params_			= null;
+		scanner.init(path);
+		
+		while (scanner.hasMore())
+		{
+			Resource child = resource.matchChild(scanner, context);
+			if (child == null)
+			{
+				completeMatch = false;
+				break;
+			}
+			resource = child;
+		}
+		
+		context.resource 		= resource;
+		context.completeMatch	= completeMatch;
+		
+		if ((cache != null) && completeMatch)
+		{
+			RouteParams params = context.takePathParams();
+			cache.put(path, new CachedMatch(resource, params));
+			context.params_ = params;
+		}
+	}
+	
+	
+	private Resource matchChild(PathScanner scanner, MatchContext context)
+	{
+		ChildIndex index = index_;
+		Resource child = index.getSegmentChild(scanner);
+		if (child != null)
+		{
+			scanner.next();
+			return child;
+		}
+		for (Resource ppChild : index.ppChildren)
+		{
+			Object paramValue = ppChild.pathParam_.parse(scanner);
+			if (paramValue != null)
+			{
+				context.setPathParam(ppChild.ppIndex_, paramValue);
+				return ppChild;
+			}
+		}
+		return null;
+	}
+	
+	
 	/**
 	 * Returns the first child which matches segment given by the PathScanner.
 	 * @return If not null, a matching child has been found. The PathScanner position
@@ -342,11 +426,21 @@ public class Resource implements Iterable<Resource>
 	 */
 	public Resource matchChild(PathScanner scanner, Map<PathParam<?>, Object> pathParams)
 	{
-		Resource[] children = children_;
-		for (Resource child : children)
+		// segment children precede path param children in the
+		// children array, and at most one segment child can match:
+		// therefore we first lookup the segment in the index
+		// and then try the path param children in order
+		ChildIndex index = index_;
+		Resource child = index.getSegmentChild(scanner);
+		if (child != null)
 		{
-			if (child.matches(scanner, pathParams))
-				return child;
+			scanner.next();
+			return child;
+		}
+		for (Resource ppChild : index.ppChildren)
+		{
+			if (ppChild.matches(scanner, pathParams))
+				return ppChild;
 		}
 		return null;
 	} 
@@ -528,6 +622,155 @@ public class Resource implements Iterable<Resource>
 	}
 	
 	
+	/**
+	 * MatchContext stores the result of a {@link Resource#match(String, MatchContext)} operation.
+	 * A MatchContext can be reused for subsequent match operations but must not be used
+	 * by multiple threads at the same time.
+	 */
+	public static class MatchContext
+	{
+		private void setPathParam(int index, Object value)
+		{
+			if (ppValues_ == null)
+				ppValues_ = new Object[Math.max(4, index + 1)];
+			else if (index >= ppValues_.length)
+				ppValues_ = Arrays.copyOf(ppValues_, Math.max(ppValues_.length * 2, index + 1));
+			ppValues_[index] = value;
+		}
+		
+		
+		/**
+		 * Returns the path parameters collected during the last match operation,
+		 * as a map view on the values array. The array is handed over to the 
+		 * returned map: therefore the map stays valid when the context is reused.
+		 * The method should be called at most once per match operation. 
+		 */
+		public RouteParams takePathParams()
+		{
+			if (params_ != null)
+				return params_;
+			
+			Route route = resource.route_;
+			if (route.getPathParamCount() == 0)
+				return RouteParams.EMPTY;
+			
+			RouteParams params = new RouteParams(route, ppValues_);
+			ppValues_ = null;
+			return params;
+		}
+		
+		
+		/**
+		 * Specifies if the resource completely matches the request path (true),
+		 * or is the best partial match (false)
+		 */
+		public boolean completeMatch;
+		
+		/**
+		 * The matched resource.  
+		 */
+		public Resource resource;
+		
+		private Object[] ppValues_;
+		private RouteParams params_;
+		private final PathScanner scanner_ = new PathScanner(null); 
+	}
+
+	
+	/**
+	 * CachedMatch is an entry of the match cache. 
+	 */
+	private static class CachedMatch
+	{
+		public CachedMatch(Resource resource, RouteParams params)
+		{
+			this.resource 	= resource;
+			this.params		= params;
+		}
+		
+		public final Resource resource;
+		public final RouteParams params;
+	}
+	
+	
+	/**
+	 * ChildIndex is an immutable lookup structure for the children of a resource.
+	 * Segment children are stored in an open addressing hash table keyed by
+	 * their segment, path param children are kept in their precedence order.
+	 * The index is rebuilt whenever a child is added.
+	 */
+	private static class ChildIndex
+	{
+		public ChildIndex(Resource[] children)
+		{
+			int segCount = 0;
+			for (Resource child : children)
+			{
+				if (child.segment_ != null)
+					segCount++;
+			}
+			
+			ppChildren = Arrays.copyOfRange(children, segCount, children.length);
+			
+			if (segCount == 0)
+			{
+				segTable_ = EMPTY;
+				mask_ 	  = -1;
+			}
+			else
+			{
+				// table size is a power of 2, at most half filled 
+				int size = Integer.highestOneBit(segCount) << 2;
+				segTable_ = new Resource[size];
+				mask_	  = size - 1;
+				for (int i=0; i<segCount; i++)
+				{
+					Resource child = children[i];
+					int p = child.segment_.hashCode() & mask_;
+					while (true)
+					{
+						Resource r = segTable_[p];
+						if (r == null)
+						{
+							segTable_[p] = child;
+							break;
+						}
+						else if (r.segment_.equals(child.segment_))
+							break; // keep the first child with that segment  
+						p = (p + 1) & mask_;
+					}
+				}
+			}
+		}
+		
+		
+		/**
+		 * Returns the segment child which matches the current segment
+		 * of the scanner, or null if there is no such child.
+		 * The scanner position is not changed.
+		 */
+		public Resource getSegmentChild(PathScanner scanner)
+		{
+			if (mask_ < 0)
+				return null;
+			int p = scanner.getSegmentHash() & mask_;
+			Resource r;
+			while ((r = segTable_[p]) != null)
+			{
+				if (scanner.matchSegment(r.segment_))
+					return r;
+				p = (p + 1) & mask_;
+			}
+			return null;
+		}
+		
+		
+		public final Resource[] ppChildren;
+		private final Resource[] segTable_;
+		private final int mask_;
+	}
+	
+	
 	@SuppressWarnings("serial")
 	private static class ResComparator implements Comparator<Resource>, Serializable
 	{
@@ -638,6 +881,44 @@ public class Resource implements Iterable<Resource>
 		}
 
 		
+		/**
+		 * Sets the size of the match cache. The match cache maps request
+		 * paths to previously matched resources and path parameters.
+		 * It is used by {@link Resource#match(String, MatchContext)} 
+		 * when called on the root resource, and is cleared whenever
+		 * the resource tree changes.
+		 * @param size the maximum number of cached matches or 0
+		 * 		if matches should not be cached.  
+		 */
+		public void setMatchCacheSize(int size)
+		{
+			if (size < 0)
+				throw new IllegalArgumentException("size < 0: " + size);
+			matchCacheSize_ = size;
+			clearMatchCache();
+		}
+		
+		
+		/**
+		 * Returns the match cache or null if matches are not cached.
+		 * The cache can be used to inspect cache statistics.
+		 * @see #setMatchCacheSize(int) 
+		 */
+		public LruCache<String,?> getMatchCache()
+		{
+			return matchCache_;
+		}
+		
+		
+		private void clearMatchCache()
+		{
+			// a new cache instance makes sure that matches
+			// which are in progress do not store stale results
+			// into the new cache
+			matchCache_ = matchCacheSize_ > 0 ? new LruCache<String,CachedMatch>(matchCacheSize_) : null;
+		}
+		
+		
 		/**
 		 * Returns the resource to which the controller with the given 
 		 * signature is mapped.
@@ -661,6 +942,8 @@ public class Resource implements Iterable<Resource>
 		private Path appPath_ = Path.ROOT;
 		private String defaultExtension_;
 		private ControllerService controllerService_;
+		private int matchCacheSize_;
+		private volatile LruCache<String,CachedMatch> matchCache_;
 		private ConcurrentHashMap<String,Resource> sig2resource_ = new ConcurrentHashMap<>();
 	}
 
@@ -679,9 +962,12 @@ public class Resource implements Iterable<Resource>
 	private final String segment_;
 	private final PathParam<?> pathParam_;
 	private final Route route_;
+	private final int ppIndex_;
 	private String ctrlSignature_;
 	private ControllerTypeProvider typeProvider_ = ControllerTypeProvider.EMPTY;
 	private Resource[] children_ = EMPTY;
+	private ChildIndex index_ = EMPTY_INDEX;
 	private static Resource[] EMPTY = new Resource[0];
+	private static ChildIndex EMPTY_INDEX = new ChildIndex(EMPTY);
 	private static ResComparator COMPARATOR = new ResComparator(); 
 }
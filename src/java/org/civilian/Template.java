@@ -48,6 +48,18 @@ public abstract class Template implements ResponseWriter.Printable
 	 * and the calls {@link #print()}.
 	 */
 	@Override public synchronized void print(ResponseWriter out) throws Exception
+	{
+		printUnsynchronized(out);
+	}
+	
+	
+	/**
+	 * Prints the template like {@link #print(ResponseWriter)} but without
+	 * synchronizing on the template object. Templates which are created
+	 * and printed by a single thread can override print(ResponseWriter)
+	 * to call this method.
+	 */
+	protected void printUnsynchronized(ResponseWriter out) throws Exception
 	{
 		Check.notNull(out, "out");
 		this.out = out;
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.annotation;
+
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Reusable marks a stateless controller class. Instead of creating
+ * a new controller object for every request, controller objects
+ * of a reusable controller class are kept in a small pool of the 
+ * ControllerType and used for subsequent requests.<br>
+ * Therefore a reusable controller must not keep request related
+ * state in its fields beyond the processing of a single request.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface Reusable
+{
+}
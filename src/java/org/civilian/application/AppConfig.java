@@ -29,6 +29,7 @@ import org.civilian.content.ContentSerializer;
 import org.civilian.content.ContentType;
 import org.civilian.content.JaxbXmlSerializer;
 import org.civilian.controller.ControllerFactory;
+import org.civilian.controller.MethodInvoker;
 import org.civilian.controller.classloader.ReloadConfig;
 import org.civilian.provider.ResponseProvider;
 import org.civilian.resource.ExtensionMapping;
@@ -96,6 +97,7 @@ public class AppConfig
 		typeLibrary_ 			= new TypeLib();
 		extensionMapping_		= app.getResourceConfig().getExtensionMapping();
 		defaultResExtension_	= IoUtil.normExtension(settings_.get(ConfigKeys.EXTENSION, null));
+		matchCacheSize_			= settings_.getInt(ConfigKeys.MATCHCACHESIZE, 0);
 
 		// these init calls are safe
 		initLocales();
@@ -376,6 +378,26 @@ public class AppConfig
 	{
 		controllerFactory_ = factory;
 	}
+	
+	
+	/**
+	 * Returns the factory for the MethodInvokers which invoke controller action methods.
+	 * @return the factory or null if the {@link MethodInvoker#DEFAULT default factory} is used. 
+	 */
+	public MethodInvoker.Factory getMethodInvokerFactory()
+	{
+		return methodInvokerFactory_;
+	}
+	
+	
+	/**
+	 * Sets the factory for the MethodInvokers which invoke controller action methods,
+	 * e.g. {@link MethodInvoker#REFLECTION} or {@link MethodInvoker#METHOD_HANDLE}.
+	 */
+	public void setMethodInvokerFactory(MethodInvoker.Factory factory)
+	{
+		methodInvokerFactory_ = factory;
+	}
 
 	
 	//----------------------------
@@ -457,6 +479,30 @@ public class AppConfig
 	}
 	
 	
+	/**
+	 * Returns the size of the resource match cache.
+	 * @see #setMatchCacheSize(int)
+	 */
+	public int getMatchCacheSize()
+	{
+		return matchCacheSize_;
+	}
+
+	
+	/**
+	 * Sets the size of the resource match cache. If &gt; 0 the
+	 * application caches the resources and path parameters matched 
+	 * for the most recently used request paths. Default is 0.
+	 * @see Resource.Tree#setMatchCacheSize(int)
+	 */
+	public void setMatchCacheSize(int size)
+	{
+		if (size < 0)
+			throw new IllegalArgumentException("size < 0: " + size);
+		matchCacheSize_ = size;
+	}
+	
+	
 	/**
 	 * Returns the ExtensionMapping object to configure extenson mappings.
 	 * If a client is a not able to send Accept headers, extension mappings
@@ -564,10 +610,12 @@ public class AppConfig
 	private UploadConfig uploadConfig_;
 	private Resource rootResource_;
 	private String defaultResExtension_;
+	private int matchCacheSize_;
 	private ExtensionMapping extensionMapping_;
 	private ReloadConfig reloadConfig_;
 	private boolean connect_;
 	private boolean async_;
 	private ControllerFactory controllerFactory_;
+	private MethodInvoker.Factory methodInvokerFactory_;
 	private Map<ContentType,ContentSerializer> contentSerializers_ = new HashMap<>();
 }
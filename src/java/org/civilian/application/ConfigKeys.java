@@ -159,6 +159,12 @@ public interface ConfigKeys
 	public static final String MAXFILESIZE = "maxFileSize";
 	
 	
+	/**
+	 * A key of the Civilian config.
+	 */
+	public static final String MATCHCACHESIZE = "matchCacheSize";
+
+	
 	/**
 	 * A key of the Civilian config.
 	 */
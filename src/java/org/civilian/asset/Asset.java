@@ -23,12 +23,22 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
+import java.util.StringTokenizer;
 import java.util.TimeZone;
 import org.civilian.Response;
+import org.civilian.content.CompressionScheme;
 import org.civilian.content.ContentType;
+import org.civilian.processor.Compressor;
+import org.civilian.request.RequestHeaders;
+import org.civilian.response.ResponseHeaders;
 import org.civilian.util.Check;
 import org.civilian.util.IoUtil;
 
@@ -40,6 +50,19 @@ import org.civilian.util.IoUtil;
 public abstract class Asset
 {
     private static final String MAX_AGE = String.valueOf(30 * 24 * 60 * 60); // 30 days 
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable"; // 1 year 
+    private static final int MIN_GZIP_LENGTH = 256; // smaller contents are not compressed 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int BUFFER_SIZE = 64 * 1024; // buffer size when content is streamed 
+    private static final long[] UNSATISFIABLE = new long[0]; 
+    private static final int CHUNK_SIZE = 8 * 1024; // size of the per thread chunk used to write off-heap buffers 
+    private static final ThreadLocal<byte[]> CHUNK = new ThreadLocal<byte[]>()
+    {
+        @Override protected byte[] initialValue()
+        {
+            return new byte[CHUNK_SIZE];
+        }
+    };
     private static final SimpleDateFormat HTTP_DATE_FORMAT = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
     static 
     {
@@ -47,6 +70,31 @@ public abstract class Asset
         HTTP_DATE_FORMAT.setTimeZone(gmtZone);
     }
     
+    
+	/**
+	 * Storage defines where the content of an asset is held 
+	 * when read into memory.
+	 * @see Asset#readContent(Storage)
+	 */
+	public enum Storage
+	{
+		/**
+		 * The content is held in a byte array on the heap.
+		 */
+		HEAP,
+		
+		/**
+		 * The content is held in a direct ByteBuffer outside of the heap.
+		 */
+		DIRECT,
+		
+		/**
+		 * The content of file based assets is mapped into memory,
+		 * other assets use a direct ByteBuffer. 
+		 */
+		MAPPED
+	}
+	
 
 	/**
 	 * Returns the content type of the asset or null
@@ -100,6 +148,7 @@ public abstract class Asset
 	public void setLength(long length)
 	{
 		length_ = length;
+		clearWeakETag();
 	}
 	
 	
@@ -110,6 +159,7 @@ public abstract class Asset
 	 */
 	public void setLastModified(long ms)
 	{
+		clearWeakETag();
 		if (ms < 0)
 		{
 			lastModified_ = -1L;
@@ -137,6 +187,61 @@ public abstract class Asset
 	}
 
 	
+	/**
+	 * Sets if the asset is immutable, i.e. its content will never change
+	 * for the asset path. This is the case for assets whose path 
+	 * contains a hash of their content. Immutable assets are sent with a
+	 * Cache-Control header which allows clients to cache them forever. 
+	 */
+	public void setImmutable(boolean immutable)
+	{
+		immutable_ = immutable;
+	}
+	
+	
+	/**
+	 * Returns if the asset is immutable.
+	 */
+	public boolean isImmutable()
+	{
+		return immutable_;
+	}
+
+	
+	/**
+	 * Returns the entity tag of the asset. 
+	 * If the asset content was read into memory, this is a strong entity tag
+	 * built from a hash of the content. Else a weak entity tag is built 
+	 * from the length and last modified date.
+	 * @return the entity tag including quotes, or null if not known.
+	 */
+	public String getETag()
+	{
+		String etag = etag_;
+		if ((etag == null) && (length_ >= 0) && (lastModified_ >= 0))
+			etag_ = etag = "W/\"" + Long.toHexString(length_) + '-' + Long.toHexString(lastModified_) + '"';
+		return etag;
+	}
+	
+	
+	/**
+	 * Sets the entity tag of the asset.
+	 * @param etag the entity tag including quotes, e.g. "\"abc\"" or "W/\"abc\"".
+	 */
+	public void setETag(String etag)
+	{
+		etag_ = etag;
+	}
+	
+	
+	private void clearWeakETag()
+	{
+		String etag = etag_;
+		if ((etag != null) && etag.startsWith("W/"))
+			etag_ = null;
+	}
+
+	
 	/**
 	 * Returns if an cached asset file is still valid, i.e.
 	 * its source has not changed since the Asset was created.
@@ -145,19 +250,71 @@ public abstract class Asset
 	
 	
 	/**
-	 * Reads the asset content into memory.
+	 * Reads the asset content into memory, using heap storage.
 	 */
 	public void readContent() throws IOException
 	{
+		readContent(Storage.HEAP);
+	}
+	
+	
+	/**
+	 * Reads the asset content into memory.
+	 * @param storage defines where the content is stored. Off-heap
+	 * 		storage is only used if the length of the asset is known.
+	 */
+	public void readContent(Storage storage) throws IOException
+	{
+		Check.notNull(storage, "storage");
 		if (content_ == null)
 		{
-			try(InputStream in = getInputStream())
+			if ((storage == Storage.HEAP) || (length_ < 0) || (length_ > Integer.MAX_VALUE))
+				setContent(readBytes());
+			else
+				setContent(readBuffer(storage));
+		}
+	}
+	
+	
+	private byte[] readBytes() throws IOException
+	{
+		try(InputStream in = getInputStream())
+		{
+			if ((length_ >= 0) && (length_ <= Integer.MAX_VALUE))
 			{
-				ByteArrayOutputStream out = new ByteArrayOutputStream();
-				IoUtil.copy(in, out);
-				setContent(out.toByteArray()); 
+				// size the array up front
+				byte[] bytes = new byte[(int)length_];
+				if ((IoUtil.read(in, bytes, 0, bytes.length) == bytes.length) && (in.read() == -1))
+					return bytes;
 			}
 		}
+		try(InputStream in = getInputStream())
+		{
+			return IoUtil.readBytes(in);
+		}
+	}
+	
+	
+	/**
+	 * Reads the asset content into a ByteBuffer outside of the heap.
+	 * The default implementation reads the content into a direct ByteBuffer.
+	 * Derived classes may map the content into memory if 
+	 * the storage is {@link Storage#MAPPED}.
+	 * @param storage either {@link Storage#DIRECT} or {@link Storage#MAPPED}.
+	 * @return the buffer, its remaining bytes are the asset content.
+	 */
+	protected ByteBuffer readBuffer(Storage storage) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int)length_);
+		try(ReadableByteChannel in = Channels.newChannel(getInputStream()))
+		{
+			while (buffer.hasRemaining() && (in.read(buffer) >= 0))
+				continue;
+		}
+		if (buffer.hasRemaining())
+			throw new IOException(this + ": expected " + length_ + " bytes, but got " + buffer.position());
+		buffer.flip();
+		return buffer;
 	}
 
 	
@@ -166,18 +323,139 @@ public abstract class Asset
 	 */
 	public void setContent(byte[] content)
 	{
-		content_ = Check.notNull(content, "content");
-		setLength(content.length);
+		setContent(ByteBuffer.wrap(Check.notNull(content, "content")));
+	}
+
+	
+	/**
+	 * Sets the asset content.
+	 * @param content a buffer whose remaining bytes are the asset content.
+	 * 		The buffer must not be modified afterwards.  
+	 */
+	public void setContent(ByteBuffer content)
+	{
+		Check.notNull(content, "content");
+		setLength(content.remaining());
+		etag_ 		= buildETag(content.duplicate());
+		content_	= content;
+	}
+	
+	
+	private static String buildETag(ByteBuffer content)
+	{
+		byte[] hash;
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("MD5");
+			digest.update(content);
+			hash = digest.digest();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		
+		char[] s = new char[2 * hash.length + 2];
+		s[0] = s[s.length - 1] = '"';
+		for (int i=0; i<hash.length; i++)
+		{
+			s[2 * i + 1] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+			s[2 * i + 2] = HEX_DIGITS[hash[i] & 0xF];
+		}
+		return new String(s);
+	}
+	
+	
+	/**
+	 * Returns if the asset content has been read into memory.
+	 */
+	public boolean isContentLoaded()
+	{
+		return content_ != null;
+	}
+	
+	
+	/**
+	 * Returns if the asset content has been read into memory
+	 * outside of the heap.
+	 */
+	public boolean isContentOffHeap()
+	{
+		ByteBuffer content = content_;
+		return (content != null) && content.isDirect();
 	}
 	
 	
 	/**
 	 * Returns the asset content, or null if not
-	 * yet read into memory. 
+	 * yet read into memory or stored outside of the heap. 
 	 */
 	protected byte[] getContent()
 	{
-		return content_;
+		ByteBuffer content = content_;
+		if ((content == null) || !content.hasArray())
+			return null;
+		if ((content.arrayOffset() == 0) && (content.position() == 0) && (content.remaining() == content.array().length))
+			return content.array();
+		byte[] bytes = new byte[content.remaining()];
+		content.duplicate().get(bytes);
+		return bytes;
+	}
+	
+	
+	/**
+	 * Prepares a gzip compressed variant of the asset content.
+	 * The variant is sent to clients which accept the gzip encoding,
+	 * instead of compressing the content on every request.
+	 * The default implementation compresses the content if it was read into memory
+	 * and keeps the variant if it is noticeably smaller than the content.
+	 * Derived classes may provide a precompressed variant.
+	 */
+	public void readGzipContent() throws IOException
+	{
+		ByteBuffer content = content_;
+		if ((gzipContent_ == null) && (content != null) && (content.remaining() >= MIN_GZIP_LENGTH))
+		{
+			int length = content.remaining();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2);
+			try(OutputStream gzip = CompressionScheme.DEFAULT_GZIP_SCHEME.wrap(out))
+			{
+				write(gzip, content, 0, length);
+			}
+			if (out.size() < length - length / 10)
+				setGzipContent(out.toByteArray());
+		}
+	}
+	
+	
+	/**
+	 * Sets the gzip compressed variant of the asset content.
+	 * If the asset content is stored outside of the heap, the
+	 * variant is also moved outside of the heap.
+	 * @param content the variant or null if the asset has no such variant.
+	 */
+	public void setGzipContent(byte[] content)
+	{
+		if ((content != null) && isContentOffHeap())
+		{
+			ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+			buffer.put(content);
+			buffer.flip();
+			gzipContent_ = buffer;
+		}
+		else
+			gzipContent_ = content != null ? ByteBuffer.wrap(content) : null;
+	}
+	
+	
+	/**
+	 * Returns the byte length of the gzip compressed variant of the asset content,
+	 * or -1 if the asset has no such variant.
+	 */
+	public long gzipLength()
+	{
+		ByteBuffer gzipContent = gzipContent_;
+		return gzipContent != null ? gzipContent.remaining() : -1L;
 	}
 	
 	
@@ -191,28 +469,41 @@ public abstract class Asset
 			(length_ != 0) &&
 			checkIfModified(response))
 		{
-			writeContent(response);
+			long[] range = getRange(response);
+			if (range != null)
+				writeRange(response, range);
+			else
+				writeContent(response);
 		}
 	}
 	
 
 	/**
 	 * Writes a last-modified and max-age header to the response,
-	 * if the last modified date is known.
+	 * if the last modified date is known, an ETag header if
+	 * the entity tag is known, and a Cache-Control header for immutable assets.
 	 */
 	protected void writeHeaders(Response response)
 	{
+		if (immutable_)
+			response.getHeaders().set("Cache-Control", IMMUTABLE_CACHE_CONTROL);
 		if (lastModifiedHttp_ != null)
 		{
 			response.getHeaders().set("Last-Modified", lastModifiedHttp_);
 			response.getHeaders().set("max-age", MAX_AGE);
 		}
+		if (length_ > 0)
+			response.getHeaders().set("Accept-Ranges", "bytes");
+		String etag = getETag();
+		if (etag != null)
+			response.getHeaders().set("ETag", etag);
 	}
  	
 	
 	/**
 	 * Sets content-related headers and writes the asset content
-	 * to the response.
+	 * to the response. If the asset has a gzip compressed variant and the 
+	 * client accepts gzip encoding, the variant is written. 
 	 */
 	protected void writeContent(Response response) throws IOException
 	{
@@ -221,30 +512,241 @@ public abstract class Asset
 			response.setContentType(contentType_);
 		if (encoding_ != null)
 			response.setContentEncoding(encoding_);
+		
+		ByteBuffer gzipContent = gzipContent_;
+		if (gzipContent != null)
+		{
+			if (writeGzipVariantHeaders(response))
+			{
+				// the Compressor must not compress the content again
+				response.getRequest().setAttribute(Compressor.NO_COMPRESSION, Boolean.TRUE);
+				response.getHeaders().set("Content-Encoding", CompressionScheme.GZIP);
+				response.setContentLength(gzipContent.remaining());
+				write(response.getContentStream(), gzipContent, 0, gzipContent.remaining());
+				return;
+			}
+		}
+		
 		if (length_ >= 0)
 			response.setContentLength(length_);
 		
-		OutputStream out = response.getContentStream();
-		if (content_ != null)
-			out.write(content_);
+		writeContent(response.getContentStream(), 0, length_);
+	}
+	
+	
+	/**
+	 * Writes a part of the asset content to an OutputStream.
+	 * If the content was not read into memory, it is streamed from 
+	 * the InputStream of the asset.
+	 * @param start the offset of the first byte to write
+	 * @param length the number of bytes to write, or -1 to write
+	 * 		all bytes after the start offset
+	 */
+	protected void writeContent(OutputStream out, long start, long length) throws IOException
+	{
+		ByteBuffer content = content_;
+		if (content != null)
+			write(out, content, (int)start, length >= 0 ? (int)length : content.remaining() - (int)start);
 		else
 		{
 			try(InputStream in = getInputStream())
 			{
-				IoUtil.copy(in, out);
+				IoUtil.skip(in, start);
+				IoUtil.copy(in, out, length, BUFFER_SIZE);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Writes bytes of a content buffer to an OutputStream.
+	 * Off-heap buffers are copied in chunks, using a byte array
+	 * which is reused by the current thread.
+	 */
+	private static void write(OutputStream out, ByteBuffer content, int start, int length) throws IOException
+	{
+		ByteBuffer buffer = content.duplicate();
+		buffer.position(buffer.position() + start);
+		buffer.limit(buffer.position() + length);
+		if (buffer.hasArray())
+			out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+		else
+		{
+			byte[] chunk = CHUNK.get();
+			while (buffer.hasRemaining())
+			{
+				int n = Math.min(chunk.length, buffer.remaining());
+				buffer.get(chunk, 0, n);
+				out.write(chunk, 0, n);
 			}
 		}
 	}
 	
+	
+	/**
+	 * Returns the byte range requested by a Range header.
+	 * Ranges are ignored if the If-Range header does not match
+	 * the last modified date or strong entity tag. Multiple ranges
+	 * are not supported and ignored too.  
+	 * @return the range as array of first and last byte position, 
+	 * 		or null if the whole content should be written,
+	 * 		or UNSATISFIABLE if the range does not overlap the content.
+	 */
+	private long[] getRange(Response response)
+	{
+		if (length_ <= 0)
+			return null;
+		
+		RequestHeaders headers = response.getRequest().getHeaders(); 
+		String range = headers.get("Range");
+		if ((range == null) || !range.startsWith("bytes="))
+			return null;
+		
+		String ifRange = headers.get("If-Range");
+		if ((ifRange != null) && !ifRange.equals(lastModifiedHttp_))
+		{
+			String etag = getETag();
+			if ((etag == null) || etag.startsWith("W/") || !etag.equals(ifRange))
+				return null;
+		}
+		
+		return parseRange(range.substring(6).trim(), length_);
+	}
+	
+	
+	/**
+	 * Parses a single byte range specification.
+	 */
+	static long[] parseRange(String spec, long length)
+	{
+		int p = spec.indexOf('-');
+		if ((p < 0) || (spec.indexOf(',') >= 0))
+			return null;
+		
+		try
+		{
+			String first = spec.substring(0, p).trim();
+			String last	 = spec.substring(p + 1).trim();
+			if (first.length() == 0)
+			{
+				// suffix range: the last n bytes
+				long n = Long.parseLong(last);
+				if (n <= 0)
+					return n == 0 ? UNSATISFIABLE : null; 
+				return new long[] { Math.max(0, length - n), length - 1 };
+			}
+			
+			long start 	= Long.parseLong(first);
+			long end	= last.length() == 0 ? Long.MAX_VALUE : Long.parseLong(last);
+			if ((start < 0) || (end < start))
+				return null;
+			if (start >= length)
+				return UNSATISFIABLE;
+			return new long[] { start, Math.min(end, length - 1) };
+		}
+		catch (NumberFormatException e)
+		{
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * Writes a part of the content as partial content response,
+	 * or sends a 416 status if the range is not satisfiable.
+	 */
+	private void writeRange(Response response, long[] range) throws IOException
+	{
+		ResponseHeaders headers = response.getHeaders();
+		if (range == UNSATISFIABLE)
+		{
+			response.setStatus(Response.Status.SC416_REQUESTED_RANGE_NOT_SATISFIABLE);
+			headers.set("Content-Range", "bytes */" + length_);
+			return;
+		}
+		
+		response.setStatus(Response.Status.PARTIAL_CONTENT);
+		if (contentType_ != null)
+			response.setContentType(contentType_);
+		if (encoding_ != null)
+			response.setContentEncoding(encoding_);
+		
+		// the range refers to the uncompressed content 
+		response.getRequest().setAttribute(Compressor.NO_COMPRESSION, Boolean.TRUE);
+		headers.set("Content-Range", "bytes " + range[0] + '-' + range[1] + '/' + length_);
+		long length = range[1] - range[0] + 1;
+		response.setContentLength(length);
+		writeContent(response.getContentStream(), range[0], length);
+	}
+	
 
+	/**
+	 * Writes the Vary header for an asset with a gzip compressed variant
+	 * and, if the client accepts gzip encoding, the ETag of the variant.
+	 * @return true if the client accepts gzip encoding 
+	 */
+	private boolean writeGzipVariantHeaders(Response response)
+	{
+		ResponseHeaders headers = response.getHeaders();
+		String vary = headers.get("Vary");
+		if ((vary == null) || !vary.contains("Accept-Encoding"))
+			headers.add("Vary", "Accept-Encoding");
+		if (!acceptsGzip(response))
+			return false;
+		String etag = getETag();
+		if (etag != null)
+			headers.set("ETag", etag.substring(0, etag.length() - 1) + '-' + CompressionScheme.GZIP + '"');
+		return true;
+	}
+	
+	
+	/**
+	 * Sets the 304 status. The response carries the same ETag as 
+	 * a 200 response would have.
+	 */
+	private void setNotModified(Response response)
+	{
+		response.setStatus(Response.Status.NOT_MODIFIED);
+		if (gzipContent_ != null)
+			writeGzipVariantHeaders(response);
+	}
+	
+	
+	private static boolean acceptsGzip(Response response)
+	{
+		String accepted = response.getRequest().getHeaders().get("Accept-Encoding");
+		if (accepted == null)
+			return false;
+		CompressionScheme scheme = CompressionScheme.match(accepted);
+		return (scheme != null) && CompressionScheme.GZIP.equals(scheme.getName());
+	}
+	
+	
+	/**
+	 * Evaluates the If-None-Match and If-Modified-Since headers of the request.
+	 * If-None-Match takes precedence if both are present.
+	 * @return true if the content should be written, false if a 304 status was set. 
+	 */
 	private boolean checkIfModified(Response response)
 	{
+		String ifNoneMatch = response.getRequest().getHeaders().get("If-None-Match");
+		if (ifNoneMatch != null)
+		{
+			String etag = getETag();
+			if ((etag != null) && matchesETag(ifNoneMatch, etag))
+			{
+				setNotModified(response);
+				return false;
+			}
+			return true;
+		}
+		
 		long modifiedSince = response.getRequest().getHeaders().getDate("If-Modified-Since");
 		if (modifiedSince != -1)
 		{
 			if (lastModified_ < modifiedSince + 1000)
 			{
-				response.setStatus(Response.Status.NOT_MODIFIED);
+				setNotModified(response);
 				return false;
             }
 		}
@@ -252,6 +754,35 @@ public abstract class Asset
 	}
 
 
+	/**
+	 * Tests if a If-None-Match header value matches the entity tag, 
+	 * using the weak comparison function. Entity tags of compressed 
+	 * representations, which append a "-&lt;scheme&gt;" suffix, also match.
+	 */
+	private static boolean matchesETag(String ifNoneMatch, String etag)
+	{
+		if ("*".equals(ifNoneMatch.trim()))
+			return true;
+		
+		String opaque = stripWeak(etag);
+		String prefix = opaque.substring(0, opaque.length() - 1) + '-';
+		StringTokenizer st = new StringTokenizer(ifNoneMatch, ",");
+		while (st.hasMoreTokens())
+		{
+			String tag = stripWeak(st.nextToken().trim());
+			if (tag.equals(opaque) || (tag.startsWith(prefix) && tag.endsWith("\"")))
+				return true;
+		}
+		return false;
+	}
+	
+	
+	private static String stripWeak(String etag)
+	{
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+
+
 	/**
 	 * Returns an InputStream for the asset content.
 	 */
@@ -276,10 +807,13 @@ public abstract class Asset
 	@Override public abstract String toString();
 	
 
-	private byte[] content_;
+	private ByteBuffer content_;
+	private ByteBuffer gzipContent_;
 	private ContentType contentType_;
 	private String encoding_;
 	private long length_ = -1L;
 	private long lastModified_ = -1L;
 	private String lastModifiedHttp_;
+	private volatile String etag_;
+	private boolean immutable_;
 }
@@ -16,6 +16,7 @@
 package org.civilian.asset;
 
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import org.civilian.Context;
@@ -30,12 +31,63 @@ import org.civilian.util.Check;
  */
 public class AssetConfig
 {
+	/**
+	 * Invalidation defines how cached assets are invalidated
+	 * when their source changes.
+	 * @see AssetConfig#setInvalidation(Invalidation)
+	 */
+	public enum Invalidation
+	{
+		/**
+		 * Cached assets are checked for changes on every request.
+		 */
+		CHECK,
+		
+		/**
+		 * Asset directories are watched for changes
+		 * and changed assets are evicted asynchronously. 
+		 * Assets from other sources are treated as immutable.
+		 */
+		WATCH,
+		
+		/**
+		 * Assets are never revalidated.
+		 */
+		IMMUTABLE
+	}
+	
+	
 	/**
 	 * The default value for the maximum size of assets which 
 	 * will be cached in memory.
 	 */
 	public static final int DEFAULT_MAX_CACHE_SIZE = 1024*1024;
 	
+	/**
+	 * The default value for the maximum total size of assets which 
+	 * will be cached in memory.
+	 */
+	public static final long DEFAULT_MAX_CACHE_TOTAL_SIZE = 64L*1024*1024;
+	
+	/**
+	 * The default value for the maximum number of remembered 
+	 * paths of assets which were not found.
+	 */
+	public static final int DEFAULT_NOT_FOUND_CACHE_SIZE = 10000;
+
+	/**
+	 * The default value for the time in milliseconds a path
+	 * of an asset which was not found is remembered.
+	 */
+	public static final long DEFAULT_NOT_FOUND_CACHE_TTL = 5000L;
+	
+	/**
+	 * The default value for the maximum number of threads
+	 * used to preload assets.
+	 */
+	public static final int DEFAULT_PRELOAD_THREADS = 4;
+	
+	
 	/**
 	 * Returns the maximum size of files which are 
 	 * cached in memory. The default size is 1MB.  
@@ -57,6 +109,164 @@ public class AssetConfig
 	}
 
 	
+	/**
+	 * Returns the maximum total size of all assets 
+	 * cached in memory. The default size is 64MB.  
+	 */
+	public long getMaxCachedTotalSize()
+	{
+		return maxCachedTotalSize_;
+	}
+	
+	
+	/**
+	 * Sets the maximum total size of all assets which are 
+	 * cached in memory. If exceeded, least recently used assets
+	 * are evicted from the cache. Assets which don't fit into
+	 * the cache are streamed. 
+	 */
+	public void setMaxCachedTotalSize(long maxCachedTotalSize)
+	{
+		Check.greaterEquals(maxCachedTotalSize, 1024L, "maxCachedTotalSize");
+		maxCachedTotalSize_ = maxCachedTotalSize;
+	}
+
+	
+	/**
+	 * Returns where the content of cached assets is stored.
+	 * The default is {@link Asset.Storage#HEAP}.
+	 */
+	public Asset.Storage getCacheStorage()
+	{
+		return cacheStorage_;
+	}
+	
+	
+	/**
+	 * Sets where the content of cached assets is stored.
+	 * Off-heap storage reduces the heap size and garbage collection
+	 * times when a lot of asset content is cached.
+	 */
+	public void setCacheStorage(Asset.Storage storage)
+	{
+		cacheStorage_ = Check.notNull(storage, "storage");
+	}
+
+	
+	/**
+	 * Returns how cached assets are invalidated.
+	 * The default is {@link Invalidation#CHECK}.
+	 */
+	public Invalidation getInvalidation()
+	{
+		return invalidation_;
+	}
+	
+	
+	/**
+	 * Sets how cached assets are invalidated. 
+	 * {@link Invalidation#WATCH} and {@link Invalidation#IMMUTABLE} avoid
+	 * file system calls when cached assets are served.
+	 */
+	public void setInvalidation(Invalidation invalidation)
+	{
+		invalidation_ = Check.notNull(invalidation, "invalidation");
+	}
+
+	
+	/**
+	 * Returns the maximum number of remembered paths of assets 
+	 * which were not found. The default size is 10000.  
+	 */
+	public int getNotFoundCacheSize()
+	{
+		return notFoundCacheSize_;
+	}
+	
+	
+	/**
+	 * Sets the maximum number of remembered paths of assets 
+	 * which were not found. Requests for these paths are answered
+	 * without asking the AssetLocations again. 
+	 * @param size the size or 0 to disable the not-found cache. 
+	 */
+	public void setNotFoundCacheSize(int size)
+	{
+		Check.greaterEquals(size, 0, "size");
+		notFoundCacheSize_ = size;
+	}
+
+	
+	/**
+	 * Returns the time in milliseconds a path of an asset 
+	 * which was not found is remembered. The default time is 5 seconds.  
+	 */
+	public long getNotFoundCacheTtl()
+	{
+		return notFoundCacheTtl_;
+	}
+	
+	
+	/**
+	 * Sets the time in milliseconds a path of an asset 
+	 * which was not found is remembered. Assets which are added to an 
+	 * AssetLocation become available after that time at the latest. 
+	 */
+	public void setNotFoundCacheTtl(long millis)
+	{
+		Check.greaterEquals(millis, 1L, "millis");
+		notFoundCacheTtl_ = millis;
+	}
+
+	
+	/**
+	 * Adds a preload pattern. When the application is initialized,
+	 * all assets whose path matches a preload pattern are loaded into the asset cache,
+	 * so that the first requests after a deploy don't have to read them.
+	 * A pattern is an asset path relative to the asset root and
+	 * may contain the wildcards '*' (matches within a path segment),
+	 * '**' (matches across path segments) and '?' (matches a single character).
+	 * A pattern without wildcards matches the path itself and all paths below it,
+	 * therefore "/" matches all assets.
+	 * Only assets which can be enumerated by their AssetLocation (e.g. files of a directory
+	 * or entries of a jar file) are preloaded.
+	 * @param pattern the pattern, e.g. "css/**&#47;*.css"
+	 */
+	public void addPreload(String pattern)
+	{
+		preloads_.add(Check.notNull(pattern, "pattern"));
+	}
+	
+	
+	/**
+	 * Returns the preload patterns.
+	 */
+	public String[] getPreloads()
+	{
+		return preloads_.toArray(new String[preloads_.size()]);
+	}
+	
+	
+	/**
+	 * Returns the maximum number of threads used to preload assets.
+	 * The default is 4.
+	 */
+	public int getPreloadThreads()
+	{
+		return preloadThreads_;
+	}
+	
+	
+	/**
+	 * Sets the maximum number of threads used to preload assets.
+	 */
+	public void setPreloadThreads(int threads)
+	{
+		Check.greaterEquals(threads, 1, "threads");
+		preloadThreads_ = threads;
+	}
+
+	
 	/**
 	 * Clears the AssetLocation list.
 	 */
@@ -142,5 +352,12 @@ public class AssetConfig
 	
 	private ContentTypeLookup contentTypeLookup_ = ContentTypeLookup.DEFAULT;
 	private int maxCachedSize_ = DEFAULT_MAX_CACHE_SIZE;
+	private long maxCachedTotalSize_ = DEFAULT_MAX_CACHE_TOTAL_SIZE;
+	private Invalidation invalidation_ = Invalidation.CHECK;
+	private Asset.Storage cacheStorage_ = Asset.Storage.HEAP;
+	private int notFoundCacheSize_ = DEFAULT_NOT_FOUND_CACHE_SIZE;
+	private long notFoundCacheTtl_ = DEFAULT_NOT_FOUND_CACHE_TTL;
+	private int preloadThreads_ = DEFAULT_PRELOAD_THREADS;
+	private ArrayList<String> preloads_ = new ArrayList<>();
 	private HashMap<String,AssetLocation> locations_ = new HashMap<>();
 }
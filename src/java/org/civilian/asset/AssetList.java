@@ -16,8 +16,15 @@
 package org.civilian.asset;
 
 
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.civilian.template.mixin.HtmlMixin;
 import org.civilian.util.Check;
+import org.civilian.util.IoUtil;
 import org.civilian.provider.ApplicationProvider;
 import org.civilian.response.ResponseWriter;
 
@@ -31,6 +38,9 @@ import org.civilian.response.ResponseWriter;
  * Optionally you can also specify a production asset,
  * which - in case the application is running in production mode -
  * will be printed instead of the whole list of assets.
+ * The production asset can also be built at startup by 
+ * {@link #bundle(AssetService, BundleLocation, String, Minifier) bundling}
+ * the assets of the list.
  */
 public class AssetList implements ResponseWriter.Printable
 {
@@ -108,6 +118,153 @@ public class AssetList implements ResponseWriter.Printable
 	}
 
 	
+	/**
+	 * Bundles the assets of the list: Their contents are concatenated, optionally
+	 * minified and added to a BundleLocation under a path which contains a hash of the 
+	 * bundle content. The path of the bundle is then set as production path of the list.
+	 * Relative urls in CSS assets are rewritten to be relative to the bundle location.
+	 * @param service the AssetService which provides the assets of the list,
+	 * 		usually the {@link org.civilian.Application#getAssetService() AssetService} of the application.
+	 * @param location the location which serves the bundle. It must be part of the AssetService
+	 * 		of the application. 
+	 * @param name the name of the bundle, e.g. "app.js"
+	 * @param minifier a Minifier or null, if the bundle should not be minified.
+	 * @return this
+	 * @throws IllegalArgumentException if an asset of the list does not exist.
+	 */
+	public AssetList bundle(AssetService service, BundleLocation location, String name, Minifier minifier) throws Exception
+	{
+		Check.notNull(service, "service");
+		Check.notNull(location, "location");
+		
+		String bundleDir = location.getRelativePath().toString();
+		StringBuilder content = new StringBuilder();
+		for (String path : paths_)
+		{
+			Asset asset = service.getAsset(path);
+			if (asset == null)
+				throw new IllegalArgumentException("asset '" + path + "' not found");
+			String encoding = asset.getEncoding() != null ? asset.getEncoding() : BundleLocation.ENCODING;
+			try(Reader in = new InputStreamReader(asset.getInputStream(), encoding))
+			{
+				String text = IoUtil.readString(in);
+				if (type_ == CSS_TYPE)
+					text = rewriteCssUrls(text, path, bundleDir);
+				content.append(text);
+			}
+			content.append(type_ == JS_TYPE ? ";\n" : "\n");
+		}
+		
+		String bundle = content.toString();
+		if (minifier != null)
+			bundle = minifier.minify(bundle, type_);
+		return setProductionPaths(location.add(name, bundle));
+	}
+	
+	
+	/**
+	 * Rewrites the relative urls of a CSS text, so that they still reference 
+	 * the same resources when the text is served from another directory.
+	 * Absolute urls, urls with a scheme and urls which point outside
+	 * of the asset root are not changed. 
+	 * @param css the CSS text
+	 * @param sourcePath the path of the CSS asset, relative to the asset root
+	 * @param targetDir the directory from which the text is served, relative to the asset root
+	 */
+	static String rewriteCssUrls(String css, String sourcePath, String targetDir)
+	{
+		List<String> sourceDir = split(sourcePath);
+		if (!sourceDir.isEmpty())
+			sourceDir.remove(sourceDir.size() - 1);
+		List<String> target = split(targetDir);
+		if (sourceDir.equals(target))
+			return css;
+		
+		Matcher matcher = CSS_URL.matcher(css);
+		StringBuilder s = null;
+		int last = 0;
+		while (matcher.find())
+		{
+			String url = rewriteUrl(matcher.group(2), sourceDir, target);
+			if (url != null)
+			{
+				if (s == null)
+					s = new StringBuilder(css.length() + 64);
+				s.append(css, last, matcher.start());
+				s.append("url(").append(matcher.group(1)).append(url).append(matcher.group(1)).append(')');
+				last = matcher.end();
+			}
+		}
+		if (s == null)
+			return css;
+		s.append(css, last, css.length());
+		return s.toString();
+	}
+	
+	
+	/**
+	 * Returns the url relative to the target directory, or null if the url
+	 * should not be changed. 
+	 */
+	private static String rewriteUrl(String url, List<String> sourceDir, List<String> targetDir)
+	{
+		if ((url.length() == 0) || (url.charAt(0) == '/') || (url.charAt(0) == '#'))
+			return null;
+		
+		// cut off query and fragment
+		int end = url.length();
+		for (int i=0; i<end; i++)
+		{
+			char c = url.charAt(i);
+			if ((c == '?') || (c == '#'))
+				end = i;
+			else if (c == ':')
+				return null; // url with a scheme, e.g. data: or http:
+		}
+		
+		List<String> path = new ArrayList<>(sourceDir);
+		for (String segment : url.substring(0, end).split("/", -1))
+		{
+			if (segment.equals(".."))
+			{
+				if (path.isEmpty())
+					return null;
+				path.remove(path.size() - 1);
+			}
+			else if (!segment.equals("."))
+				path.add(segment);
+		}
+		
+		int common = 0;
+		while ((common < targetDir.size()) && (common < path.size() - 1) && targetDir.get(common).equals(path.get(common)))
+			common++;
+		
+		StringBuilder s = new StringBuilder();
+		for (int i=common; i<targetDir.size(); i++)
+			s.append("../");
+		for (int i=common; i<path.size(); i++)
+		{
+			if (i > common)
+				s.append('/');
+			s.append(path.get(i));
+		}
+		s.append(url, end, url.length());
+		return s.toString();
+	}
+	
+	
+	private static List<String> split(String path)
+	{
+		List<String> list = new ArrayList<>();
+		for (String segment : path.split("/"))
+		{
+			if (segment.length() > 0)
+				list.add(segment);
+		}
+		return list;
+	}
+	
+	
 	/**
 	 * Prints the asset list to the ResponseWriter.
 	 */
@@ -138,6 +295,21 @@ public class AssetList implements ResponseWriter.Printable
 	}
 	
 
+	/**
+	 * A Minifier can minify the content of a bundle.
+	 * @see AssetList#bundle(AssetService, BundleLocation, String, Minifier)
+	 */
+	public static interface Minifier
+	{
+		/**
+		 * Returns the minified content.
+		 * @param content the concatenated content of the assets 
+		 * @param type the type of the AssetList
+		 */
+		public String minify(String content, Type type) throws Exception;
+	}
+	
+
 	private static class CssType implements Type
 	{
 		@Override public void printRef(String path, HtmlMixin html)
@@ -156,6 +328,7 @@ public class AssetList implements ResponseWriter.Printable
 	}
 	
 
+	private static final Pattern CSS_URL = Pattern.compile("url\\(\\s*(['\"]?)([^'\"()]*?)\\1\\s*\\)");
 	private Type type_;
 	private String[] productionPaths_;
 	private String[] paths_;
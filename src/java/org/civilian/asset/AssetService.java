@@ -16,6 +16,8 @@
 package org.civilian.asset;
 
 
+import java.io.File;
+import java.util.List;
 import org.civilian.content.ContentTypeLookup;
 import org.civilian.internal.Logs;
 import org.civilian.provider.PathProvider;
@@ -76,6 +78,36 @@ public abstract class AssetService implements PathProvider
 	public abstract boolean hasAssets();
 
 	
+	/**
+	 * Adds the root directories of file based assets served 
+	 * by this AssetService to the list. These directories can be
+	 * watched for changes. The default implementation does nothing.
+	 */
+	public void collectDirectories(List<File> dirs)
+	{
+	}
+	
+	
+	/**
+	 * Adds the paths of the assets which are served by this AssetService
+	 * and can be enumerated, to the list. The paths are relative to the asset root.
+	 * They are used to preload assets. The default implementation does nothing.
+	 * @see AssetConfig#addPreload(String)
+	 */
+	public void collectAssetPaths(List<String> paths)
+	{
+	}
+	
+	
+	/**
+	 * Called when the application closes. The AssetService should free any resources.
+	 * The default implementation does nothing.
+	 */
+	public void close()
+	{
+	}
+
+	
 	/**
 	 * Returns the asset path as string.
 	 */
@@ -17,18 +17,28 @@ package org.civilian.asset;
 
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 import org.civilian.Application;
 import org.civilian.Context;
 import org.civilian.application.ConfigKeys;
 import org.civilian.content.ContentType;
+import org.civilian.internal.Logs;
 import org.civilian.internal.asset.AssetCache;
 import org.civilian.internal.asset.CombinedAssetService;
 import org.civilian.internal.asset.CivResourceLocation;
+import org.civilian.internal.asset.JarLocation;
 import org.civilian.internal.asset.JavaResourceLocation;
 import org.civilian.internal.asset.DirectoryLocation;
 import org.civilian.resource.Path;
+import org.civilian.util.Check;
 import org.civilian.util.Settings;
 
 
@@ -209,6 +219,19 @@ public abstract class AssetServices
 	}
 	
 
+	/**
+	 * Returns an AssetLocation which serves the entries of a jar file.
+	 * The jar file is opened once and its entries below the prefix are indexed.
+	 * @param path the path of the AssetLocation below the asset root.
+	 * @param jarFile the jar file
+	 * @param prefix a prefix path for the entries. Must not be empty.
+	 */
+	public static AssetLocation getJarLocation(String path, File jarFile, String prefix) throws IOException
+	{
+		return new JarLocation(path, jarFile, prefix);
+	}
+	
+	
 	/**
 	 * Returns an AssetLocation which serves Java resources from civilian.jar.
 	 * @param path the path of the AssetLocation below the asset root.
@@ -236,6 +259,174 @@ public abstract class AssetServices
 	}
 
 
+	/**
+	 * Returns a new AssetService which caches the assets of the service.
+	 * @param service a AssetService implementation
+	 * @param maxMemSize if the size of an Asset is smaller than maxMemSize
+	 * 		than its contents will also be held in memory.
+	 * @param maxTotalSize the maximum memory size of all cached assets. If exceeded,
+	 * 		least recently used assets are evicted from the cache.
+	 * @return the new caching AssetService
+	 */
+	public static AssetService makeCaching(AssetService service, int maxMemSize, long maxTotalSize)
+	{
+		return new AssetCache(service, maxMemSize, maxTotalSize);
+	}
+
+
+	/**
+	 * Returns a new AssetService which caches the assets of the service,
+	 * using the cache settings of the AssetConfig.
+	 * @param service a AssetService implementation
+	 * @param config the AssetConfig
+	 */
+	public static AssetService makeCaching(AssetService service, AssetConfig config)
+	{
+		AssetCache cache = new AssetCache(service, config.getMaxCachedSize(), config.getMaxCachedTotalSize());
+		cache.setNotFoundCache(config.getNotFoundCacheSize(), config.getNotFoundCacheTtl());
+		cache.setStorage(config.getCacheStorage());
+		cache.setInvalidation(config.getInvalidation());
+		return cache;
+	}
+
+
+	/**
+	 * Preloads assets. All assets of the service whose path matches one of the patterns
+	 * are requested from the service, using a bounded number of threads. If the service 
+	 * is caching, the assets are loaded into the cache.
+	 * @param service an initialized AssetService
+	 * @param patterns the preload patterns
+	 * @param threads the maximum number of threads
+	 * @return the number of preloaded assets
+	 * @see AssetConfig#addPreload(String)
+	 */
+	public static int preload(final AssetService service, String[] patterns, int threads) throws InterruptedException
+	{
+		Check.notNull(service, "service");
+		Check.notNull(patterns, "patterns");
+		Check.greaterEquals(threads, 1, "threads");
+		if (patterns.length == 0)
+			return 0;
+		
+		Pattern[] regexes = new Pattern[patterns.length];
+		for (int i=0; i<patterns.length; i++)
+			regexes[i] = compilePreload(patterns[i]);
+		
+		ArrayList<String> paths = new ArrayList<>();
+		service.collectAssetPaths(paths);
+		
+		ArrayList<Callable<Asset>> tasks = new ArrayList<>();
+		for (final String path : paths)
+		{
+			if (matches(regexes, path))
+			{
+				tasks.add(new Callable<Asset>()
+				{
+					@Override public Asset call()
+					{
+						try
+						{
+							return service.getAsset(path);
+						}
+						catch (Exception e)
+						{
+							Logs.ASSET.warn("cannot preload asset " + path, e);
+							return null;
+						}
+					}
+				});
+			}
+		}
+		if (tasks.isEmpty())
+			return 0;
+		
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(tasks.size(), threads));
+		try
+		{
+			int count = 0;
+			for (Future<Asset> future : executor.invokeAll(tasks))
+			{
+				try
+				{
+					if (future.get() != null)
+						count++;
+				}
+				catch (ExecutionException e)
+				{
+					Logs.ASSET.warn("cannot preload asset", e.getCause());
+				}
+			}
+			return count;
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+	
+	
+	private static boolean matches(Pattern[] regexes, String path)
+	{
+		for (Pattern regex : regexes)
+		{
+			if (regex.matcher(path).matches())
+				return true;
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * Translates a preload pattern into a regular expression.
+	 */
+	static Pattern compilePreload(String pattern)
+	{
+		String s = Path.norm(pattern);
+		StringBuilder regex = new StringBuilder();
+		boolean wildcard = false;
+		for (int i=0; i<s.length(); i++)
+		{
+			char c = s.charAt(i);
+			if (c == '*')
+			{
+				wildcard = true;
+				if ((i + 1 < s.length()) && (s.charAt(i + 1) == '*'))
+				{
+					i++;
+					if ((i + 1 < s.length()) && (s.charAt(i + 1) == '/'))
+					{
+						// "**/" also matches no directory
+						i++;
+						regex.append("(?:.*/)?");
+					}
+					else
+						regex.append(".*");
+				}
+				else
+					regex.append("[^/]*");
+			}
+			else if (c == '?')
+			{
+				wildcard = true;
+				regex.append("[^/]");
+			}
+			else if (Character.isLetterOrDigit(c) || (c == '/'))
+				regex.append(c);
+			else
+				regex.append('\\').append(c);
+		}
+		if (!wildcard)
+		{
+			// a path matches itself and all paths below
+			if (s.length() == 0)
+				regex.append(".*");
+			else
+				regex.append("(?:/.*)?");
+		}
+		return Pattern.compile(regex.toString());
+	}
+	
+	
 	/**
 	 * Returns an AssetService which combines the given services.
 	 * If no services are provided then the returned AssetService will not be able to serve assets.
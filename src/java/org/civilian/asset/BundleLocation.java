@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.asset;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import org.civilian.internal.asset.MemoryAsset;
+import org.civilian.resource.Path;
+import org.civilian.util.Check;
+
+
+/**
+ * BundleLocation is an AssetLocation which serves asset bundles.
+ * A bundle is held in memory and published under a path which contains
+ * a hash of its content. Since the content for such a path never changes,
+ * bundles are {@link Asset#setImmutable(boolean) immutable} and can be cached
+ * by clients forever.<br>
+ * Add the BundleLocation to the {@link AssetConfig} of the application
+ * and use {@link AssetList#bundle(AssetService, BundleLocation, String, AssetList.Minifier)}
+ * to create bundles for AssetLists.
+ */
+public class BundleLocation extends AssetLocation
+{
+	/**
+	 * The encoding of bundles.
+	 */
+	public static final String ENCODING = "UTF-8";
+
+
+	/**
+	 * Creates a new BundleLocation.
+	 * @param relativePath the relative path below the asset root under which
+	 * 		bundles are published.
+	 */
+	public BundleLocation(String relativePath)
+	{
+		super(relativePath);
+		setEncoding(ENCODING);
+	}
+
+
+	/**
+	 * Adds a bundle.
+	 * @param name the name of the bundle, e.g. "app.js". The path of
+	 * 		the bundle is built from the name by inserting a hash of the content
+	 * 		before the extension, e.g. "app-0cc175b9c0.js".
+	 * @param content the bundle content
+	 * @return the path of the bundle relative to the asset root.
+	 */
+	public String add(String name, String content)
+	{
+		Check.notNull(name, "name");
+		MemoryAsset asset = new MemoryAsset(ENCODING, content);
+		asset.setImmutable(true);
+
+		String etag = asset.getETag(); // the quoted content hash
+		String hash = etag.substring(1, 1 + HASH_LENGTH);
+		int p = name.lastIndexOf('.');
+		String fileName = p > 0 ?
+			name.substring(0, p) + '-' + hash + name.substring(p) :
+			name + '-' + hash;
+
+		Path path = new Path(fileName);
+		bundles_.put(path.toString(), asset);
+		return getRelativePath().add(path).toString().substring(1);
+	}
+
+
+	/**
+	 * Returns the bundle for the path or null.
+	 */
+	@Override protected Asset find(Path assetPath) throws Exception
+	{
+		return bundles_.get(assetPath.toString());
+	}
+
+
+	/**
+	 * Returns the number of bundles.
+	 */
+	@Override protected String getInfoParam()
+	{
+		return bundles_.size() + " bundles";
+	}
+
+
+	private static final int HASH_LENGTH = 10;
+	private final ConcurrentHashMap<String,Asset> bundles_ = new ConcurrentHashMap<>();
+}
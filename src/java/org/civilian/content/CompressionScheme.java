@@ -16,11 +16,16 @@
 package org.civilian.content;
 
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.StringTokenizer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
 import org.civilian.internal.HeaderParser;
 import org.civilian.util.Check;
 
@@ -28,6 +33,10 @@ import org.civilian.util.Check;
 /**
  * CompressionScheme represents a scheme to compress or decompress
  * binary content.
+ * The default "gzip" and "deflate" schemes reuse pooled Deflaters and Inflaters. 
+ * To use another compression level or strategy, {@link #set(String, CompressionScheme) register}
+ * a new scheme, e.g. <code>new CompressionScheme.GZip(6, Deflater.DEFAULT_STRATEGY, 16*1024)</code> 
+ * under its names and make it the {@link #setPreferred(CompressionScheme) preferred} scheme.
  */
 public abstract class CompressionScheme
 {
@@ -65,6 +74,12 @@ public abstract class CompressionScheme
 	 * An alternate name of the "compress" compression scheme.
 	 */
 	public static final String X_COMPRESS = "x-compress";
+	
+	
+	/**
+	 * The default size of the buffers used by compressing and decompressing streams.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
 
 	
 	/**
@@ -315,49 +330,251 @@ public abstract class CompressionScheme
 
 	
 	/**
-	 * The GZip CompressionScheme.
+	 * The GZip CompressionScheme. It uses pooled Deflaters and Inflaters.
 	 */
 	public static class GZip extends CompressionScheme
 	{
+		/**
+		 * Creates a GZip scheme with default compression level and strategy.
+		 */
 		public GZip()
+		{
+			this(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY, DEFAULT_BUFFER_SIZE);
+		}
+		
+		
+		/**
+		 * Creates a GZip scheme.
+		 * @param level the compression level, 0-9 or -1 for the default level
+		 * @param strategy the compression strategy, see {@link Deflater#setStrategy(int)} 
+		 * @param bufferSize the size of the stream buffers
+		 */
+		public GZip(int level, int strategy, int bufferSize)
 		{
 			super(GZIP);
+			pool_		= new ZlibPool(level, strategy, true /*nowrap*/);
+			bufferSize_	= Check.greaterEquals(bufferSize, 1, "bufferSize");
+		}
+		
+		
+		/**
+		 * Returns the pool of Deflaters and Inflaters.
+		 */
+		public ZlibPool getPool()
+		{
+			return pool_;
 		}
 		
 		
 		@Override public InputStream wrap(InputStream in) throws IOException
 		{
-			return new java.util.zip.GZIPInputStream(in);
+			return new GZipInputStream(in, pool_, bufferSize_);
 		}
 
 
 		@Override public OutputStream wrap(OutputStream out) throws IOException
 		{
-			return new GZipOutputStream(out);
+			return new GZipOutputStream(out, pool_, bufferSize_);
 		}
+		
+		
+		private final ZlibPool pool_;
+		private final int bufferSize_;
 	}
 
 
 	/**
-	 * GZipOutputStream is a java.util.zip.GZIPOutputStream.
-	 * which actively releases its deflater. 
+	 * GZipOutputStream writes content in the GZIP format.
+	 * Its Deflater is released when the stream is finished.<br>
+	 * Note: GZipOutputStream is a {@link DeflaterOutputStream} and no longer 
+	 * extends java.util.zip.GZIPOutputStream, since it must be able to use
+	 * a pooled Deflater.
 	 */
-	public static class GZipOutputStream extends java.util.zip.GZIPOutputStream
+	public static class GZipOutputStream extends DeflaterOutputStream
 	{
+		/**
+		 * Creates a GZipOutputStream which uses its own Deflater.
+		 */
 		public GZipOutputStream(OutputStream out) throws IOException
 		{
-			super(out, true /*syncFlush*/);
+			this(out, null, DEFAULT_BUFFER_SIZE);
+		}
+		
+		
+		/**
+		 * Creates a GZipOutputStream.
+		 * @param out the output stream
+		 * @param pool provides the Deflater. If null, an own Deflater is used.
+		 * @param bufferSize the size of the output buffer
+		 */
+		public GZipOutputStream(OutputStream out, ZlibPool pool, int bufferSize) throws IOException
+		{
+			super(out, pool, true /*nowrap*/, bufferSize, true /*syncFlush*/);
+			out.write(GZIP_HEADER);
+		}
+		
+		
+		@Override public void write(byte[] b, int off, int len) throws IOException
+		{
+			super.write(b, off, len);
+			crc_.update(b, off, len);
+		}
+		
+		
+		@Override protected void writeTrailer() throws IOException
+		{
+			writeInt((int)crc_.getValue());
+			writeInt(def.getTotalIn());
+		}
+		
+		
+		private void writeInt(int n) throws IOException
+		{
+			out.write(n & 0xff);
+			out.write((n >> 8) & 0xff);
+			out.write((n >> 16) & 0xff);
+			out.write((n >> 24) & 0xff);
 		}
 		
+		
+		private static final byte[] GZIP_HEADER = { 0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+		private final CRC32 crc_ = new CRC32();
+	}
 	
+	
+	/**
+	 * GZipInputStream reads content in the GZIP format.
+	 * The members of a multi-member GZIP stream are read as one continuous
+	 * content. Data after a member which is not a GZIP member is rejected.
+	 * The Inflater is released when the end of the content is reached
+	 * or the stream is closed.
+	 */
+	public static class GZipInputStream extends InflaterInputStream
+	{
 		/**
-		 * Also releases the deflater.
+		 * Creates a GZipInputStream.
+		 * @param in the input stream
+		 * @param pool provides the Inflater. If null, an own Inflater is used.
+		 * @param bufferSize the size of the input buffer
 		 */
-		@Override public void finish() throws IOException
+		public GZipInputStream(InputStream in, ZlibPool pool, int bufferSize) throws IOException
 		{
-			super.finish();
-			def.end();
+			super(in, pool, true /*nowrap*/, bufferSize);
+			try
+			{
+				readHeader(readUByte());
+			}
+			catch (IOException e)
+			{
+				release();
+				throw e;
+			}
+		}
+		
+		
+		/**
+		 * Reads a member header.
+		 * @param first the first byte of the header 
+		 */
+		private void readHeader(int first) throws IOException
+		{
+			if ((first != 0x1f) || (readUByte() != 0x8b))
+				throw new ZipException("not in GZIP format");
+			if (readUByte() != Deflater.DEFLATED)
+				throw new ZipException("unsupported compression method");
+			int flags = readUByte();
+			skipBytes(6); // mtime, extra flags, OS
+			if ((flags & FEXTRA) != 0)
+				skipBytes(readUByte() | (readUByte() << 8));
+			if ((flags & FNAME) != 0)
+				skipString();
+			if ((flags & FCOMMENT) != 0)
+				skipString();
+			if ((flags & FHCRC) != 0)
+				skipBytes(2);
+		}
+		
+		
+		@Override protected int readContent(byte[] b, int off, int len) throws IOException
+		{
+			int n = super.readContent(b, off, len);
+			if (n > 0)
+				crc_.update(b, off, n);
+			return n;
+		}
+		
+		
+		/**
+		 * Reads the trailer of a member and the header of the next member, if any.
+		 */
+		@Override protected boolean readTrailer() throws IOException
+		{
+			// the trailer starts with the bytes which were not consumed by the inflater 
+			pos_ = len - inf.getRemaining();
+			if ((readInt() != (int)crc_.getValue()) || (readInt() != (int)inf.getBytesWritten()))
+				throw new ZipException("corrupt GZIP trailer");
+			
+			int next = readRaw();
+			if (next == -1)
+				return false;
+			readHeader(next);
+			
+			// the remaining buffered bytes are the start of the next member
+			inf.reset();
+			crc_.reset();
+			if (pos_ < len)
+				inf.setInput(buf, pos_, len - pos_);
+			return true;
+		}
+		
+		
+		/**
+		 * Reads a byte outside of the compressed data. Bytes not consumed 
+		 * by the inflater are read first.
+		 * @return the byte or -1 at the end of the stream
+		 */
+		private int readRaw() throws IOException
+		{
+			return pos_ < len ? buf[pos_++] & 0xff : in.read();
+		}
+		
+		
+		private int readUByte() throws IOException
+		{
+			int b = readRaw();
+			if (b == -1)
+				throw new EOFException();
+			return b;
+		}
+		
+		
+		private int readInt() throws IOException
+		{
+			return readUByte() | (readUByte() << 8) | (readUByte() << 16) | (readUByte() << 24);
+		}
+		
+		
+		private void skipBytes(int n) throws IOException
+		{
+			while (n-- > 0)
+				readUByte();
 		}
+		
+		
+		private void skipString() throws IOException
+		{
+			while (readUByte() != 0)
+			{
+			}
+		}
+		
+		
+		private static final int FHCRC		= 2;
+		private static final int FEXTRA		= 4;
+		private static final int FNAME		= 8;
+		private static final int FCOMMENT	= 16;
+		private final CRC32 crc_ = new CRC32();
+		private int pos_;
 	}
 	
 
@@ -409,49 +626,250 @@ public abstract class CompressionScheme
 	
 
 	/**
-	 * The Deflate CompressionScheme.
+	 * The Deflate CompressionScheme. It uses pooled Deflaters and Inflaters.
 	 */
 	public static class Deflate extends CompressionScheme
 	{
+		/**
+		 * Creates a Deflate scheme with default compression level and strategy.
+		 */
 		public Deflate()
+		{
+			this(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY, DEFAULT_BUFFER_SIZE);
+		}
+		
+		
+		/**
+		 * Creates a Deflate scheme.
+		 * @param level the compression level, 0-9 or -1 for the default level
+		 * @param strategy the compression strategy, see {@link Deflater#setStrategy(int)} 
+		 * @param bufferSize the size of the stream buffers
+		 */
+		public Deflate(int level, int strategy, int bufferSize)
 		{
 			super(DEFLATE);
+			pool_		= new ZlibPool(level, strategy, false /*nowrap*/);
+			bufferSize_	= Check.greaterEquals(bufferSize, 1, "bufferSize");
+		}
+		
+		
+		/**
+		 * Returns the pool of Deflaters and Inflaters.
+		 */
+		public ZlibPool getPool()
+		{
+			return pool_;
 		}
 		
 		
 		@Override public InputStream wrap(InputStream in) throws IOException
 		{
-			return new java.util.zip.InflaterInputStream(in);
+			return new InflaterInputStream(in, pool_, false /*nowrap*/, bufferSize_);
 		}
 
 	
 		@Override public OutputStream wrap(OutputStream out) throws IOException
 		{
-			return new DeflaterOutputStream(out);
+			return new DeflaterOutputStream(out, pool_, false /*nowrap*/, bufferSize_, false /*syncFlush*/);
 		}
+		
+		
+		private final ZlibPool pool_;
+		private final int bufferSize_;
 	}
 	
 	
 	/**
-	 * DeflaterOutputStream is a java.util.zip.DeflaterOutputStream.
-	 * which actively releases its deflater. 
+	 * DeflaterOutputStream is a java.util.zip.DeflaterOutputStream
+	 * which actively releases its Deflater when the stream is finished:
+	 * A pooled Deflater is returned to its pool, an own Deflater is ended.
 	 */
 	public static class DeflaterOutputStream extends java.util.zip.DeflaterOutputStream
 	{
+		/**
+		 * Creates a DeflaterOutputStream which uses its own Deflater.
+		 */
 		public DeflaterOutputStream(OutputStream out) throws IOException
 		{
-			super(out);
+			this(out, null, false, DEFAULT_BUFFER_SIZE, false);
+		}
+		
+		
+		/**
+		 * Creates a DeflaterOutputStream.
+		 * @param out the output stream
+		 * @param pool provides the Deflater. If null, an own Deflater is used.
+		 * @param nowrap if an own Deflater is used, determines if it writes the ZLIB header and checksum
+		 * @param bufferSize the size of the output buffer
+		 * @param syncFlush if true, flush() also flushes the Deflater 
+		 */
+		public DeflaterOutputStream(OutputStream out, ZlibPool pool, boolean nowrap, int bufferSize, boolean syncFlush) throws IOException
+		{
+			super(out, pool != null ? pool.getDeflater() : new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap), bufferSize, syncFlush);
+			pool_ = pool;
+		}
+		
+		
+		@Override public void write(byte[] b, int off, int len) throws IOException
+		{
+			if (released_)
+				throw new IOException("write beyond end of stream");
+			super.write(b, off, len);
+		}
+		
+		
+		@Override public void flush() throws IOException
+		{
+			if (released_)
+				out.flush();
+			else
+				super.flush();
 		}
 		
 	
 		/**
-		 * Also releases the deflater.
+		 * Finishes compression and releases the Deflater.
 		 */
 		@Override public void finish() throws IOException
 		{
-			super.finish();
-			def.end();
+			if (!released_)
+			{
+				boolean success = false;
+				try
+				{
+					super.finish();
+					writeTrailer();
+					success = true;
+				}
+				finally
+				{
+					release(success);
+				}
+			}
 		}
+		
+		
+		/**
+		 * Allows derived classes to write a trailer after
+		 * the compressed data. The default implementation does nothing.
+		 */
+		protected void writeTrailer() throws IOException
+		{
+		}
+		
+		
+		private void release(boolean reuse)
+		{
+			released_ = true;
+			if ((pool_ != null) && reuse)
+				pool_.release(def);
+			else
+				def.end();
+		}
+		
+		
+		private final ZlibPool pool_;
+		private boolean released_;
+	}
+	
+	
+	/**
+	 * InflaterInputStream is a java.util.zip.InflaterInputStream
+	 * which actively releases its Inflater when the end of the content is 
+	 * reached or the stream is closed: A pooled Inflater is returned to its pool, 
+	 * an own Inflater is ended.
+	 */
+	public static class InflaterInputStream extends java.util.zip.InflaterInputStream
+	{
+		/**
+		 * Creates an InflaterInputStream.
+		 * @param in the input stream
+		 * @param pool provides the Inflater. If null, an own Inflater is used.
+		 * @param nowrap if an own Inflater is used, determines if it expects the ZLIB header and checksum
+		 * @param bufferSize the size of the input buffer
+		 */
+		public InflaterInputStream(InputStream in, ZlibPool pool, boolean nowrap, int bufferSize)
+		{
+			super(in, pool != null ? pool.getInflater() : new Inflater(nowrap), bufferSize);
+			pool_ = pool;
+		}
+		
+		
+		@Override public int read(byte[] b, int off, int len) throws IOException
+		{
+			if (released_)
+				return -1;
+			int n;
+			while ((n = readContent(b, off, len)) == -1)
+			{
+				if (!readTrailer())
+				{
+					release();
+					break;
+				}
+			}
+			return n;
+		}
+		
+		
+		/**
+		 * Reads uncompressed content.
+		 */
+		protected int readContent(byte[] b, int off, int len) throws IOException
+		{
+			return super.read(b, off, len);
+		}
+		
+		
+		/**
+		 * Allows derived classes to read a trailer after
+		 * the compressed data. The default implementation does nothing.
+		 * @return true if more compressed data follows and the Inflater
+		 * 		was prepared to read it, false at the end of the content
+		 */
+		protected boolean readTrailer() throws IOException
+		{
+			return false;
+		}
+		
+		
+		@Override public int available() throws IOException
+		{
+			return released_ ? 0 : super.available();
+		}
+		
+		
+		/**
+		 * Closes the stream and releases the Inflater.
+		 */
+		@Override public void close() throws IOException
+		{
+			try
+			{
+				super.close();
+			}
+			finally
+			{
+				release();
+			}
+		}
+		
+		
+		protected void release()
+		{
+			if (!released_)
+			{
+				released_ = true;
+				if (pool_ != null)
+					pool_.release(inf);
+				else
+					inf.end();
+			}
+		}
+		
+		
+		private final ZlibPool pool_;
+		private boolean released_;
 	}
 	
 
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.content;
+
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.civilian.util.Check;
+
+
+/**
+ * ZlibPool is a bounded pool of Deflater and Inflater objects.
+ * Deflaters and Inflaters hold native zlib memory which is only freed when 
+ * they are ended or garbage collected. Reusing them avoids that native memory
+ * is allocated for every compressed stream.
+ * All Deflaters of a pool use the same compression level and strategy.
+ */
+public class ZlibPool
+{
+	/**
+	 * The default maximum number of idle Deflaters and Inflaters in a pool.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+	
+	
+	/**
+	 * Creates a new ZlibPool with the default maximum size.
+	 * @param level the compression level of the Deflaters, 0-9 or -1 for the default level
+	 * @param strategy the compression strategy of the Deflaters
+	 * @param nowrap if true the Deflaters and Inflaters don't use the ZLIB header and checksum
+	 * 		as required by the GZIP format 
+	 */
+	public ZlibPool(int level, int strategy, boolean nowrap)
+	{
+		this(level, strategy, nowrap, DEFAULT_MAX_SIZE);
+	}
+	
+	
+	/**
+	 * Creates a new ZlibPool.
+	 * @param level the compression level of the Deflaters, 0-9 or -1 for the default level
+	 * @param strategy the compression strategy of the Deflaters
+	 * @param nowrap if true the Deflaters and Inflaters don't use the ZLIB header and checksum
+	 * 		as required by the GZIP format 
+	 * @param maxSize the maximum number of idle Deflaters and Inflaters kept in the pool.
+	 */
+	public ZlibPool(int level, int strategy, boolean nowrap, int maxSize)
+	{
+		level_ 		= Check.between(level, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION, "level");
+		strategy_	= Check.between(strategy, Deflater.DEFAULT_STRATEGY, Deflater.HUFFMAN_ONLY, "strategy");
+		nowrap_		= nowrap;
+		maxSize_	= Check.greaterEquals(maxSize, 0, "maxSize");
+	}
+	
+	
+	/**
+	 * Returns the compression level.
+	 */
+	public int getLevel()
+	{
+		return level_;
+	}
+	
+	
+	/**
+	 * Returns the compression strategy.
+	 */
+	public int getStrategy()
+	{
+		return strategy_;
+	}
+	
+	
+	/**
+	 * Returns a Deflater from the pool or creates a new one.
+	 * The Deflater should be {@link #release(Deflater) released} when it is no longer used.
+	 */
+	public Deflater getDeflater()
+	{
+		Deflater deflater = deflaters_.poll();
+		if (deflater != null)
+			deflaterCount_.decrementAndGet();
+		else
+		{
+			deflater = new Deflater(level_, nowrap_);
+			deflater.setStrategy(strategy_);
+		}
+		return deflater;
+	}
+	
+	
+	/**
+	 * Resets the Deflater and returns it to the pool. If the pool is full the Deflater is ended.
+	 */
+	public void release(Deflater deflater)
+	{
+		deflater.reset();
+		if (deflaterCount_.incrementAndGet() <= maxSize_)
+			deflaters_.offer(deflater);
+		else
+		{
+			deflaterCount_.decrementAndGet();
+			deflater.end();
+		}
+	}
+	
+	
+	/**
+	 * Returns an Inflater from the pool or creates a new one.
+	 * The Inflater should be {@link #release(Inflater) released} when it is no longer used.
+	 */
+	public Inflater getInflater()
+	{
+		Inflater inflater = inflaters_.poll();
+		if (inflater != null)
+			inflaterCount_.decrementAndGet();
+		else
+			inflater = new Inflater(nowrap_);
+		return inflater;
+	}
+	
+	
+	/**
+	 * Resets the Inflater and returns it to the pool. If the pool is full the Inflater is ended.
+	 */
+	public void release(Inflater inflater)
+	{
+		inflater.reset();
+		if (inflaterCount_.incrementAndGet() <= maxSize_)
+			inflaters_.offer(inflater);
+		else
+		{
+			inflaterCount_.decrementAndGet();
+			inflater.end();
+		}
+	}
+	
+	
+	/**
+	 * Returns the number of idle Deflaters in the pool.
+	 */
+	public int getIdleDeflaters()
+	{
+		return deflaterCount_.get();
+	}
+	
+	
+	/**
+	 * Returns the number of idle Inflaters in the pool.
+	 */
+	public int getIdleInflaters()
+	{
+		return inflaterCount_.get();
+	}
+	
+	
+	/**
+	 * Ends all idle Deflaters and Inflaters.
+	 */
+	public void clear()
+	{
+		Deflater deflater;
+		while ((deflater = deflaters_.poll()) != null)
+		{
+			deflaterCount_.decrementAndGet();
+			deflater.end();
+		}
+		Inflater inflater;
+		while ((inflater = inflaters_.poll()) != null)
+		{
+			inflaterCount_.decrementAndGet();
+			inflater.end();
+		}
+	}
+	
+	
+	@Override public String toString()
+	{
+		return "ZlibPool[level=" + level_ + ", strategy=" + strategy_ + 
+			", deflaters=" + deflaterCount_.get() + ", inflaters=" + inflaterCount_.get() + "]"; 
+	}
+	
+	
+	private final int level_;
+	private final int strategy_;
+	private final boolean nowrap_;
+	private final int maxSize_;
+	private final ConcurrentLinkedQueue<Deflater> deflaters_ = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<Inflater> inflaters_ = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger deflaterCount_ = new AtomicInteger();
+	private final AtomicInteger inflaterCount_ = new AtomicInteger();
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.controller;
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.civilian.content.ContentTypeList;
+import org.civilian.util.Check;
+import org.civilian.util.ClassUtil;
+
+
+/**
+ * ControllerIndex is a compact description of the controller types of an application.
+ * For every controller signature it records the controller class, the method path
+ * and the action methods with their request methods, produced and consumed content types
+ * and parameter types.<br>
+ * The index is generated at build time by {@link org.civilian.tool.resource.ControllerIndexGenerator}
+ * and stored as resource next to the application class. At application startup
+ * the {@link ControllerService} uses the index to build all ControllerTypes
+ * without scanning the controller classes for action methods.
+ * @see ControllerService#preload(ControllerIndex)
+ */
+public class ControllerIndex implements Iterable<ControllerIndex.Entry>
+{
+	private static final String HEADER 		= "# civilian controller index";
+	private static final String CONTROLLER	= "c";
+	private static final String METHOD		= "m";
+	private static final String NONE		= "-";
+	private static final String EMPTY		= "[]";
+	private static final String ENCODING	= "UTF-8";
+	
+	
+	/**
+	 * Returns the name of the index resource for an application class.
+	 * The resource is located in the package of the application class.
+	 */
+	public static String getFileName(Class<?> appClass)
+	{
+		return ClassUtil.cutPackageName(appClass.getName()) + ".controllers";
+	}
+	
+	
+	/**
+	 * Loads the index for an application class.
+	 * @return the index or null if the application has no index.
+	 */
+	public static ControllerIndex load(Class<?> appClass) throws IOException
+	{
+		InputStream in = appClass.getResourceAsStream(getFileName(appClass));
+		if (in == null)
+			return null;
+		try(Reader reader = new InputStreamReader(in, ENCODING))
+		{
+			return read(reader);
+		}
+	}
+	
+	
+	/**
+	 * Reads an index.
+	 */
+	public static ControllerIndex read(Reader reader) throws IOException
+	{
+		ControllerIndex index = new ControllerIndex();
+		BufferedReader in = new BufferedReader(reader);
+		Entry entry = null;
+		String line;
+		while((line = in.readLine()) != null)
+		{
+			if ((line.length() == 0) || line.startsWith("#"))
+				continue;
+			
+			String[] parts = line.split("\t", -1);
+			if (CONTROLLER.equals(parts[0]) && (parts.length == 3))
+				index.add(entry = new Entry(parts[1], fromString(parts[2])));
+			else if (METHOD.equals(parts[0]) && (parts.length == 7) && (entry != null))
+			{
+				entry.methods.add(new MethodEntry(
+					parts[1],
+					parts[2],
+					split(parts[3]),
+					split(parts[4]),
+					fromString(parts[5]),
+					fromString(parts[6])));
+			}
+			else
+				throw new IOException("invalid controller index line '" + line + "'");
+		}
+		return index;
+	}
+	
+	
+	/**
+	 * Adds an entry for a ControllerType.
+	 */
+	public void add(ControllerType type)
+	{
+		Entry entry = new Entry(type.getControllerClass().getName(), type.getMethodPath());
+		for (ControllerMethod method : type)
+			entry.methods.add(new MethodEntry(method));
+		add(entry);
+	}
+	
+	
+	/**
+	 * Adds an entry.
+	 */
+	public void add(Entry entry)
+	{
+		entries_.add(Check.notNull(entry, "entry"));
+	}
+	
+	
+	/**
+	 * Returns the number of entries.
+	 */
+	public int size()
+	{
+		return entries_.size();
+	}
+	
+	
+	/**
+	 * Returns an iterator for the entries.
+	 */
+	@Override public Iterator<Entry> iterator()
+	{
+		return entries_.iterator();
+	}
+	
+	
+	/**
+	 * Writes the index.
+	 */
+	public void write(Writer writer) throws IOException
+	{
+		PrintWriter out = new PrintWriter(writer);
+		out.println(HEADER);
+		for (Entry entry : entries_)
+		{
+			out.print(CONTROLLER);
+			out.print('\t');
+			out.print(entry.className);
+			out.print('\t');
+			out.println(toString(entry.methodPath));
+			for (MethodEntry method : entry.methods)
+			{
+				out.print(METHOD);
+				out.print('\t');
+				out.print(method.declaringClass);
+				out.print('\t');
+				out.print(method.name);
+				out.print('\t');
+				out.print(join(method.paramTypes));
+				out.print('\t');
+				out.print(join(method.requestMethods));
+				out.print('\t');
+				out.print(toString(method.produces));
+				out.print('\t');
+				out.println(toString(method.consumes));
+			}
+		}
+		out.flush();
+		if (out.checkError())
+			throw new IOException("error when writing controller index");
+	}
+	
+	
+	private static String toString(String s)
+	{
+		return s == null ? NONE : s.length() == 0 ? EMPTY : s;
+	}
+	
+	
+	private static String fromString(String s)
+	{
+		return NONE.equals(s) ? null : EMPTY.equals(s) ? "" : s;
+	}
+	
+	
+	private static String join(String[] values)
+	{
+		if (values.length == 0)
+			return NONE;
+		StringBuilder s = new StringBuilder();
+		for (int i=0; i<values.length; i++)
+		{
+			if (i > 0)
+				s.append(',');
+			s.append(values[i]);
+		}
+		return s.toString();
+	}
+	
+	
+	private static String[] split(String s)
+	{
+		return NONE.equals(s) ? new String[0] : s.split(",");
+	}
+	
+	
+	/**
+	 * An index entry for a controller type.
+	 */
+	public static class Entry
+	{
+		public Entry(String className, String methodPath)
+		{
+			this.className 	= Check.notNull(className, "className");
+			this.methodPath	= methodPath;
+		}
+		
+		
+		/**
+		 * Returns the controller signature.
+		 */
+		public String getSignature()
+		{
+			return ControllerSignature.build(className, methodPath);
+		}
+		
+		
+		public final String className;
+		public final String methodPath;
+		public final List<MethodEntry> methods = new ArrayList<>();
+	}
+	
+	
+	/**
+	 * An index entry for a controller method.
+	 */
+	public static class MethodEntry
+	{
+		public MethodEntry(String declaringClass, String name, String[] paramTypes, String[] requestMethods,
+			String produces, String consumes)
+		{
+			this.declaringClass	= Check.notNull(declaringClass, "declaringClass");
+			this.name			= Check.notNull(name, "name");
+			this.paramTypes		= Check.notNull(paramTypes, "paramTypes");
+			this.requestMethods	= Check.notNull(requestMethods, "requestMethods");
+			this.produces		= produces;
+			this.consumes		= consumes;
+		}
+		
+		
+		public MethodEntry(ControllerMethod method)
+		{
+			Method javaMethod 	= method.getJavaMethod();
+			declaringClass		= javaMethod.getDeclaringClass().getName();
+			name				= javaMethod.getName();
+			
+			Class<?>[] types	= javaMethod.getParameterTypes();
+			paramTypes			= new String[types.length];
+			for (int i=0; i<types.length; i++)
+				paramTypes[i] = types[i].getName();
+			
+			ArrayList<String> reqMethods = new ArrayList<>();
+			for (Iterator<String> it = method.getRequestMethods(); it.hasNext(); )
+				reqMethods.add(it.next());
+			requestMethods = reqMethods.toArray(new String[reqMethods.size()]);
+			
+			produces = toString(method.getDeclaredProduces());
+			consumes = toString(method.getDeclaredConsumes());
+		}
+		
+		
+		/**
+		 * Returns null if the list is null, or an empty string if the list is empty.
+		 */
+		private static String toString(ContentTypeList list)
+		{
+			if (list == null)
+				return null;
+			StringBuilder s = new StringBuilder();
+			for (int i=0; i<list.size(); i++)
+			{
+				if (i > 0)
+					s.append(", ");
+				s.append(list.get(i).toString());
+			}
+			return s.toString();
+		}
+		
+		
+		/**
+		 * Returns the Java method described by the entry.
+		 * @throws NoSuchMethodException if the class does not contain the method
+		 */
+		public Method findMethod(Class<?> c) throws NoSuchMethodException
+		{
+			for (Method method : c.getDeclaredMethods())
+			{
+				if (method.getName().equals(name) && hasParamTypes(method))
+					return method;
+			}
+			throw new NoSuchMethodException(c.getName() + "." + name);
+		}
+		
+		
+		private boolean hasParamTypes(Method method)
+		{
+			Class<?>[] types = method.getParameterTypes();
+			if (types.length != paramTypes.length)
+				return false;
+			for (int i=0; i<types.length; i++)
+			{
+				if (!types[i].getName().equals(paramTypes[i]))
+					return false;
+			}
+			return true;
+		}
+		
+		
+		/**
+		 * Returns the ContentTypeList for the produced content types or null.
+		 */
+		public ContentTypeList getProduces()
+		{
+			return toList(produces);
+		}
+		
+		
+		/**
+		 * Returns the ContentTypeList for the consumed content types or null.
+		 */
+		public ContentTypeList getConsumes()
+		{
+			return toList(consumes);
+		}
+		
+		
+		private static ContentTypeList toList(String s)
+		{
+			if (s == null)
+				return null;
+			else if (s.length() == 0)
+				return ContentTypeList.EMPTY;
+			else
+				return ContentTypeList.parse(s);
+		}
+		
+		
+		public final String declaringClass;
+		public final String name;
+		public final String[] paramTypes;
+		public final String[] requestMethods;
+		public final String produces;
+		public final String consumes;
+	}
+	
+	
+	private ArrayList<Entry> entries_ = new ArrayList<>();
+}
@@ -16,7 +16,6 @@
 package org.civilian.controller;
 
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Iterator;
 import org.civilian.Controller;
@@ -62,20 +61,48 @@ public class ControllerMethod
 	 * @return the ControllerMethod or null, if the method is not a valid action method. 
 	 */
 	public static ControllerMethod create(MethodArgFactory argFactory, Method javaMethod)
+	{
+		return create(argFactory, javaMethod, MethodInvoker.DEFAULT);
+	}
+	
+	
+	/**
+	 * Creates a ControllerMethod.
+	 * @param argFactory an MethodArgFactory instance which can help to create standard MethodArgs.
+	 * @param javaMethod a method of a controller class
+	 * @param invokerFactory creates the MethodInvoker used to invoke the javaMethod
+	 * @return the ControllerMethod or null, if the method is not a valid action method. 
+	 */
+	public static ControllerMethod create(MethodArgFactory argFactory, Method javaMethod, MethodInvoker.Factory invokerFactory)
 	{
 		MethodAnnotations ma = MethodAnnotations.create(javaMethod);
-		return ma != null ? new ControllerMethod(argFactory, javaMethod, ma) : null;
+		return ma != null ? 
+			new ControllerMethod(argFactory, javaMethod, ma.getRequestMethods(), ma.getProduces(), ma.getConsumes(), invokerFactory) :
+			null;
+	}
+	
+	
+	/**
+	 * Creates a ControllerMethod from a ControllerIndex entry.
+	 * The annotations of the Java method are not evaluated.
+	 */
+	static ControllerMethod create(MethodArgFactory argFactory, Method javaMethod, ControllerIndex.MethodEntry entry,
+		MethodInvoker.Factory invokerFactory)
+	{
+		return new ControllerMethod(argFactory, javaMethod, entry.requestMethods, entry.getProduces(), entry.getConsumes(), 
+			invokerFactory);
 	}
 	
 	
-	private ControllerMethod(MethodArgFactory argFactory, Method javaMethod, MethodAnnotations annotations)
+	private ControllerMethod(MethodArgFactory argFactory, Method javaMethod, String[] requestMethods, 
+		ContentTypeList produces, ContentTypeList consumes, MethodInvoker.Factory invokerFactory)
 	{
 		javaMethod_ 	= javaMethod;
 		args_			= argFactory.createParamArgs(javaMethod);
-		requestMethods_	= annotations.getRequestMethods();
-		produces_		= annotations.getProduces();
-		consumes_		= annotations.getConsumes();
-		javaMethod_.setAccessible(true);
+		requestMethods_	= requestMethods;
+		produces_		= produces;
+		consumes_		= consumes;
+		invoker_		= invokerFactory.create(javaMethod);
 	}
 
 	
@@ -191,6 +218,26 @@ public class ControllerMethod
 	}	
 
 
+	/**
+	 * Returns the content types of the {@link Produces} annotation,
+	 * or null if no annotation was set.
+	 */
+	ContentTypeList getDeclaredProduces()
+	{
+		return produces_;
+	}
+	
+	
+	/**
+	 * Returns the content types of the {@link Consumes} annotation,
+	 * or null if no annotation was set.
+	 */
+	ContentTypeList getDeclaredConsumes()
+	{
+		return consumes_;
+	}
+	
+	
 	/**
 	 * Returns the number of arguments injected into the method.
 	 */
@@ -211,27 +258,24 @@ public class ControllerMethod
 	 */
 	public void invoke(Controller controller) throws Exception
 	{
-		Request request = controller.getRequest();
-		Object[] argValues = null;
-		if (args_ != null)
-			argValues = buildArgValues(request);
-		
-		try
+		if (args_ == null)
 		{
-			javaMethod_.invoke(controller, argValues);
+			invoker_.invoke(controller);
+			return;
 		}
-		catch(InvocationTargetException e)
+		
+		Request request = controller.getRequest();
+		if (args_.length == 1)
 		{
-			if (e.getCause() instanceof Error)
-				throw (Error)e.getCause();
-			if (e.getCause() instanceof Exception)
-				throw (Exception)e.getCause();
-			else
-				throw e;
+			MethodArg arg 	= args_[0];
+			Object argValue = arg.getValue(request);
+			invoker_.invoke(controller, argValue);
+			arg.postProcess(request, argValue);
 		}
-		
-		if (argValues != null)
+		else
 		{
+			Object[] argValues = buildArgValues(request);
+			invoker_.invoke(controller, argValues);
 			for (int i=0; i<argValues.length; i++)
 				args_[i].postProcess(request, argValues[i]);
 		}
@@ -292,6 +336,7 @@ public class ControllerMethod
 
 	
 	private Method javaMethod_;
+	private MethodInvoker invoker_;
 	private String[] requestMethods_;
 	private ContentTypeList produces_;
 	private ContentTypeList consumes_;
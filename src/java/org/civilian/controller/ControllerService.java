@@ -18,12 +18,21 @@ package org.civilian.controller;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.civilian.Controller;
 import org.civilian.annotation.Path;
 import org.civilian.application.ConfigKeys;
+import org.civilian.controller.classloader.NonDelegatingClassLoader;
 import org.civilian.controller.classloader.ReloadConfig;
+import org.civilian.internal.Logs;
 import org.civilian.resource.PathParamMap;
 import org.civilian.type.TypeLib;
 import org.civilian.util.ArrayUtil;
@@ -35,25 +44,46 @@ import org.civilian.util.Check;
  */
 public class ControllerService
 {
+	/**
+	 * Creates a new ControllerService which uses the {@link MethodInvoker#DEFAULT default}
+	 * MethodInvoker factory.
+	 * @param pathParams the PathParams used by an application. Needed to handle
+	 * 		arguments of controller action methods.
+	 * @param typeLib the type library used by an application. Needed to handle
+	 * 		arguments of controller action methods.
+	 */
+	public ControllerService(PathParamMap pathParams, TypeLib typeLib, 
+		ControllerFactory factory,
+		ReloadConfig reloadConfig)
+	{
+		this(pathParams, typeLib, factory, null, reloadConfig);
+	}
+	
+	
 	/**
 	 * Creates a new ControllerService.
 	 * @param pathParams the PathParams used by an application. Needed to handle
 	 * 		arguments of controller action methods.
 	 * @param typeLib the type library used by an application. Needed to handle
 	 * 		arguments of controller action methods.
+	 * @param invokerFactory creates the MethodInvokers which invoke controller action methods.
+	 * 		If null, {@link MethodInvoker#DEFAULT} is used.
 	 */
 	public ControllerService(PathParamMap pathParams, TypeLib typeLib, 
 		ControllerFactory factory,
+		MethodInvoker.Factory invokerFactory,
 		ReloadConfig reloadConfig)
 	{
 		if (pathParams == null)
 			pathParams = PathParamMap.EMPTY;
 		if (typeLib == null)
 			typeLib = new TypeLib();
+		if (invokerFactory == null)
+			invokerFactory = MethodInvoker.DEFAULT;
 		
 		loader_ = reloadConfig != null ?
-			new DevLoader(pathParams, typeLib, factory, reloadConfig) :
-			new RealLoader(pathParams, typeLib, factory, getClass().getClassLoader());
+			new DevLoader(pathParams, typeLib, factory, invokerFactory, reloadConfig) :
+			new RealLoader(pathParams, typeLib, factory, invokerFactory, getClass().getClassLoader());
 	}
 
 	
@@ -69,6 +99,20 @@ public class ControllerService
 	}
 
 	
+	/**
+	 * Builds the ControllerTypes described by the index in parallel and caches them.
+	 * Entries which can't be built, for instance because the index is outdated, 
+	 * are logged and skipped: their ControllerTypes are built on demand.
+	 * The call is ignored if the service is {@link #isReloading() reloading}. 
+	 * @return the number of ControllerTypes built
+	 */
+	public int preload(ControllerIndex index) throws InterruptedException
+	{
+		Check.notNull(index, "index");
+		return loader_ instanceof RealLoader ? ((RealLoader)loader_).preload(index) : 0;
+	}
+
+	
 	/**
 	 * Returns a ControllerType for a {@link ControllerSignature controller signature}. 
 	 */
@@ -112,9 +156,10 @@ public class ControllerService
 		 * @param controllerClass the controller class
 		 * @param parentList the method list of the parent class
 		 * @param typeLib a type library.
+		 * @param invokerFactory creates the MethodInvokers of the action methods 
 		 */
 		public CMethods(Class<? extends Controller> controllerClass, String methodPath, CMethods parentList, 
-			PathParamMap pathParams, TypeLib typeLib)
+			PathParamMap pathParams, TypeLib typeLib, MethodInvoker.Factory invokerFactory)
 		{
 			this(controllerClass, methodPath, parentList.factory_, parentList.hierarchLevel_ + 1);
 			Check.notNull(parentList, "parentList");
@@ -134,7 +179,7 @@ public class ControllerService
 				Path pathAnno = javaMethod.getAnnotation(Path.class);
 				if (pathAnno == null ? methodPath == null : pathAnno.value().equals(methodPath))
 				{
-					ControllerMethod method = ControllerMethod.create(argFactory, javaMethod);
+					ControllerMethod method = ControllerMethod.create(argFactory, javaMethod, invokerFactory);
 					if (method != null)
 						methods_ = ArrayUtil.addLast(methods_, new LeveledMethod(method, hierarchLevel_, inClassIndex++));
 				}
@@ -144,17 +189,16 @@ public class ControllerService
 		}
 		
 		
-		public ControllerType createType()
+		public synchronized ControllerType getType()
 		{
-			if (Modifier.isAbstract(controllerClass_.getModifiers()))
-				return null; // can't invoke abstract controllers
-			else
+			if ((type_ == null) && !Modifier.isAbstract(controllerClass_.getModifiers())) // can't invoke abstract controllers
 			{
 				ControllerMethod[] methods = new ControllerMethod[methods_.length];
 				for (int i=0; i<methods.length; i++)
 					methods[i] = methods_[i].method;
-				return new ControllerType(controllerClass_, methodPath_, factory_, methods);
+				type_ = new ControllerType(controllerClass_, methodPath_, factory_, methods);
 			}
+			return type_;
 		}
 
 
@@ -169,6 +213,7 @@ public class ControllerService
 		private int hierarchLevel_;
 		private String methodPath_;
 		private ControllerFactory factory_;
+		private ControllerType type_;
 	}
 	
 	
@@ -223,14 +268,18 @@ public class ControllerService
 	
 	/**
 	 * DevLoader is a Loader for development mode with controller class reloading turned on.
+	 * It uses a RealLoader with a reloading class loader, and replaces both
+	 * when a class file of a loaded class has been modified.
 	 */
 	private static class DevLoader extends Loader
 	{
-		public DevLoader(PathParamMap pathParams, TypeLib typeLib, ControllerFactory factory, ReloadConfig reloadConfig)
+		public DevLoader(PathParamMap pathParams, TypeLib typeLib, ControllerFactory factory, 
+			MethodInvoker.Factory invokerFactory, ReloadConfig reloadConfig)
 		{
 			pathParams_	 	= pathParams;
 			typeLib_	 	= typeLib;
 			factory_		= factory;
+			invokerFactory_	= invokerFactory;
 			reloadConfig_	= reloadConfig;
 		}
 		
@@ -243,15 +292,36 @@ public class ControllerService
 		
 		@Override public ControllerType getControllerType(String signature)
 		{
-			RealLoader loader = new RealLoader(pathParams_, typeLib_, factory_, reloadConfig_.createClassLoader());
-			return loader.getControllerType(signature);
+			return getLoader().getControllerType(signature);
+		}
+		
+		
+		private RealLoader getLoader()
+		{
+			RealLoader loader = loader_;
+			if ((loader == null) || loader.isModified())
+			{
+				synchronized(this)
+				{
+					loader = loader_;
+					if ((loader == null) || loader.isModified())
+					{
+						if (loader != null)
+							Logs.CLASSLOADER.debug("class files modified, reloading controller classes");
+						loader_ = loader = new RealLoader(pathParams_, typeLib_, factory_, invokerFactory_, reloadConfig_.createClassLoader());
+					}
+				}
+			}
+			return loader;
 		}
 		
 
 		private PathParamMap pathParams_;
 		private TypeLib typeLib_;
 		private ControllerFactory factory_;
+		private MethodInvoker.Factory invokerFactory_;
 		private ReloadConfig reloadConfig_;
+		private volatile RealLoader loader_;
 	}
 
 	
@@ -262,14 +332,83 @@ public class ControllerService
 	private static class RealLoader extends Loader
 	{
 		public RealLoader(PathParamMap pathParams, TypeLib typeLib, 
-			ControllerFactory factory, ClassLoader classLoader)
+			ControllerFactory factory, MethodInvoker.Factory invokerFactory, ClassLoader classLoader)
 		{
-			pathParams_	 = pathParams;
-			typeLib_	 = typeLib;
-			classLoader_ = classLoader;
+			pathParams_	 	= pathParams;
+			typeLib_	 	= typeLib;
+			factory_	 	= factory;
+			invokerFactory_	= invokerFactory;
+			classLoader_ 	= classLoader;
 			addMethods(new CMethods(factory));
 		}
 		
+		
+		public int preload(ControllerIndex index) throws InterruptedException
+		{
+			ArrayList<Callable<ControllerType>> tasks = new ArrayList<>();
+			for (final ControllerIndex.Entry entry : index)
+			{
+				tasks.add(new Callable<ControllerType>()
+				{
+					@Override public ControllerType call()
+					{
+						return preload(entry);
+					}
+				});
+			}
+			if (tasks.isEmpty())
+				return 0;
+			
+			int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try
+			{
+				int count = 0;
+				for (Future<ControllerType> future : executor.invokeAll(tasks))
+				{
+					try
+					{
+						if (future.get() != null)
+							count++;
+					}
+					catch (ExecutionException e)
+					{
+						Logs.CONTROLLER.warn("cannot preload controller type", e.getCause());
+					}
+				}
+				return count;
+			}
+			finally
+			{
+				executor.shutdown();
+			}
+		}
+		
+		
+		private ControllerType preload(ControllerIndex.Entry entry)
+		{
+			try
+			{
+				Class<? extends Controller> controllerClass = constructControllerClass(entry.className);
+				MethodArgFactory argFactory = new MethodArgFactory(pathParams_, typeLib_); 
+				ControllerMethod[] methods	= new ControllerMethod[entry.methods.size()];
+				for (int i=0; i<methods.length; i++)
+				{
+					ControllerIndex.MethodEntry me = entry.methods.get(i);
+					Class<?> declaringClass = Class.forName(me.declaringClass, false, classLoader_);
+					methods[i] = ControllerMethod.create(argFactory, me.findMethod(declaringClass), me, invokerFactory_);
+				}
+				ControllerType type = new ControllerType(controllerClass, entry.methodPath, factory_, methods);
+				signature2types_.put(entry.getSignature(), type);
+				return type;
+			}
+			catch (Exception e)
+			{
+				Logs.CONTROLLER.warn("cannot preload controller type " + entry.getSignature() + ", controller index is outdated?", e);
+				return null;
+			}
+		}
+		
 
 		@Override public boolean isReloading()
 		{
@@ -277,19 +416,37 @@ public class ControllerService
 		}
 		
 		
+		/**
+		 * Returns if classes loaded by the class loader have been modified.
+		 */
+		public boolean isModified()
+		{
+			return (classLoader_ instanceof NonDelegatingClassLoader) && 
+				((NonDelegatingClassLoader)classLoader_).isModified();
+		}
+		
+		
 		private void addMethods(CMethods methods)
 		{
 			signature2methods_.put(methods.getSignature(), methods);
 		}
 		
 		
-		@Override public synchronized ControllerType getControllerType(String signature)
+		@Override public ControllerType getControllerType(String signature)
 		{
 			if (signature != null)
 			{
-				CMethods methods = getMethods(signature); 
+				ControllerType type = signature2types_.get(signature);
+				if (type != null)
+					return type;
+				
+				CMethods methods;
+				synchronized(this)
+				{
+					methods = getMethods(signature);
+				}
 				if (methods != null)
-					return methods.createType();
+					return methods.getType();
 			}
 			return null;
 		}
@@ -330,7 +487,7 @@ public class ControllerService
 			
 			CMethods parentMethods = getMethods(superClass.getName());
 			
-			CMethods methods = new CMethods(controllerClass, methodPath, parentMethods, pathParams_, typeLib_);
+			CMethods methods = new CMethods(controllerClass, methodPath, parentMethods, pathParams_, typeLib_, invokerFactory_);
 			addMethods(methods);
 			
 			return methods;
@@ -348,8 +505,11 @@ public class ControllerService
 		
 		private PathParamMap pathParams_;
 		private TypeLib typeLib_;
+		private ControllerFactory factory_;
+		private MethodInvoker.Factory invokerFactory_;
 		private ClassLoader classLoader_;
 		private HashMap<String, CMethods> signature2methods_ = new HashMap<>();
+		private ConcurrentHashMap<String, ControllerType> signature2types_ = new ConcurrentHashMap<>();
 	}
 
 	
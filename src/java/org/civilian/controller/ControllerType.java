@@ -16,18 +16,26 @@
 package org.civilian.controller;
 
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.civilian.Controller;
 import org.civilian.Request;
 import org.civilian.Response;
+import org.civilian.annotation.Reusable;
 import org.civilian.content.ContentNegotiation;
 import org.civilian.content.ContentType;
 import org.civilian.content.ContentTypeList;
 import org.civilian.util.ArrayUtil;
 import org.civilian.util.Check;
 import org.civilian.util.Iterators;
+import org.civilian.util.LruCache;
 
 
 /**
@@ -53,6 +61,8 @@ public class ControllerType implements Iterable<ControllerMethod>
 		methods_ 			= Check.notNull(methods, "methods"); // we accept empty arrays, even if the controller is then useless
 		methodPath_			= methodPath;
 		factory_			= factory;
+		constructor_		= factory == null ? getConstructor(controllerClass) : null;
+		pool_				= controllerClass.isAnnotationPresent(Reusable.class) ? new ConcurrentLinkedQueue<Controller>() : null;
 		
 		// build the map request-method -> controller-method[] 
 		for (ControllerMethod ctrlMethod : methods)
@@ -63,6 +73,25 @@ public class ControllerType implements Iterable<ControllerMethod>
 	}
 	
 	
+	/**
+	 * Returns a MethodHandle for the default constructor of the controller class,
+	 * or null if not available.
+	 */
+	private static MethodHandle getConstructor(Class<? extends Controller> controllerClass)
+	{
+		try
+		{
+			Constructor<? extends Controller> constructor = controllerClass.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+		}
+		catch (Exception e)
+		{
+			return null;
+		}
+	}
+	
+	
 	private void addMethod(ControllerMethod ctrlMethod, String requestMethod)
 	{
 		ControllerMethod[] ctrlMethods = reqMethod2ctrlMethod_.get(requestMethod);
@@ -106,25 +135,70 @@ public class ControllerType implements Iterable<ControllerMethod>
 
 	
 	/**
-	 * Creates a Controller and initializes the type.
+	 * Returns a Controller initialized with this type.
+	 * If the controller class is annotated with {@link Reusable @Reusable} 
+	 * an idle controller object is taken from the pool of the ControllerType,
+	 * else a new Controller is created.
 	 * @see Controller#setControllerType(ControllerType)
+	 * @see #releaseController(Controller)
 	 */
 	public Controller createController()
+	{
+		if (pool_ != null)
+		{
+			Controller controller = pool_.poll();
+			if (controller != null)
+			{
+				poolSize_.decrementAndGet();
+				return controller;
+			}
+		}
+		return newController();
+	}
+	
+	
+	/**
+	 * Returns a controller which has processed a request to the pool,
+	 * if the controller class is annotated with {@link Reusable @Reusable}
+	 * and the pool is not full. The pool belongs to the ControllerType and is
+	 * discarded together with it, e.g. when the controller classes are reloaded.
+	 */
+	public void releaseController(Controller controller)
+	{
+		if ((pool_ != null) && (controller.getControllerType() == this))
+		{
+			if (poolSize_.incrementAndGet() <= POOL_MAX_SIZE)
+				pool_.offer(controller);
+			else
+				poolSize_.decrementAndGet();
+		}
+	}
+	
+	
+	private Controller newController()
 	{
 		try
 		{
-			Controller controller = factory_ != null ? 
-				factory_.createController(controllerClass_) :
-				controllerClass_.newInstance();
+			Controller controller;
+			if (factory_ != null)
+				controller = factory_.createController(controllerClass_);
+			else if (constructor_ != null)
+				controller = (Controller)constructor_.invokeExact();
+			else
+				controller = controllerClass_.newInstance();
 			controller.setControllerType(this);
 			return controller;
 		}
-		catch (Exception e)
+		catch (Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
 		{
 			throw new IllegalArgumentException("could not instantiate controller " + getControllerClass().getName(), e);
 		}
 	}
-		
+	
 	
 	/**
 	 * Returns an iterator for all controller methods.
@@ -160,12 +234,51 @@ public class ControllerType implements Iterable<ControllerMethod>
 	 */
 	public NegotiatedMethod getMethod(Request request)
 	{
-		ControllerMethod[] methods = reqMethod2ctrlMethod_.get(request.getMethod());
-		return methods == null ?
-			new NegotiatedMethod(Response.Status.SC405_METHOD_NOT_ALLOWED) :
-			negotiate(methods, 
-				request.getContentType(),
-				request.getAcceptedContentTypes());
+		String requestMethod = request.getMethod();
+		ControllerMethod[] methods = reqMethod2ctrlMethod_.get(requestMethod);
+		if (methods == null)
+			return METHOD_NOT_ALLOWED;
+		
+		// the result of the negotiation is memorized for the 
+		// request method, request content type, accept header and extension
+		ContentType contentType = request.getContentType(); 
+		String key = getNegotiationKey(request, requestMethod, contentType);
+		if (key == null)
+			return negotiate(methods, contentType, request.getAcceptedContentTypes());
+
+		LruCache<String,NegotiatedMethod> memo = negotiationMemo_;
+		if (memo == null)
+			negotiationMemo_ = memo = new LruCache<>(MEMO_SIZE);
+		NegotiatedMethod result = memo.get(key);
+		if (result == null)
+		{
+			result = negotiate(methods, contentType, request.getAcceptedContentTypes());
+			memo.put(key, result);
+		}
+		return result;
+	}
+	
+	
+	/**
+	 * Returns the key for the negotiation memo, or null if
+	 * the request should not be memorized.
+	 */
+	private static String getNegotiationKey(Request request, String requestMethod, ContentType contentType)
+	{
+		String accept;
+		String[] acceptHeaders = request.getHeaders().getAll("Accept");
+		if (acceptHeaders.length == 0)
+			accept = "";
+		else if ((acceptHeaders.length == 1) && (acceptHeaders[0].length() <= MEMO_MAX_ACCEPT_LENGTH))
+			accept = acceptHeaders[0];
+		else
+			return null;
+		
+		// the accepted content types are derived from the extension 
+		// if the accept header is missing, empty or cannot be parsed,
+		// therefore the extension is always part of the key
+		String ext = request.getRelativePath().getExtension();
+		return requestMethod + '\n' + (contentType != null ? contentType.getValue() : "") + '\n' + accept + '\n' + (ext != null ? ext : "");  
 	}
 	
 	
@@ -181,7 +294,7 @@ public class ControllerType implements Iterable<ControllerMethod>
 	{
 		ControllerMethod[] methods = reqMethod2ctrlMethod_.get(requestMethod);
 		if (methods == null)
-			return new NegotiatedMethod(Response.Status.SC405_METHOD_NOT_ALLOWED);
+			return METHOD_NOT_ALLOWED;
 		else
 			return negotiate(methods, requestContentType, acceptedResponseTypes);
 	}	
@@ -275,9 +388,18 @@ public class ControllerType implements Iterable<ControllerMethod>
 	}
 	
 	
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Controller.class);
+	private static final NegotiatedMethod METHOD_NOT_ALLOWED = new NegotiatedMethod(Response.Status.SC405_METHOD_NOT_ALLOWED);
+	private static final int MEMO_SIZE = 64;
+	private static final int POOL_MAX_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+	private static final int MEMO_MAX_ACCEPT_LENGTH = 256;
 	private Class<? extends Controller> controllerClass_;
 	private HashMap<String, ControllerMethod[]> reqMethod2ctrlMethod_ = new HashMap<>();
 	private ControllerMethod[] methods_;
 	private String methodPath_;
 	private ControllerFactory factory_;
+	private final MethodHandle constructor_;
+	private final ConcurrentLinkedQueue<Controller> pool_;
+	private final AtomicInteger poolSize_ = new AtomicInteger();
+	private volatile LruCache<String,NegotiatedMethod> negotiationMemo_;
 }
\ No newline at end of file
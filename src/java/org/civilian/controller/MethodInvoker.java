@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.controller;
+
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.civilian.internal.Logs;
+
+
+/**
+ * MethodInvoker invokes a Java method on a target object.
+ * It is used by {@link ControllerMethod} to invoke the Java method
+ * of a controller action. Dedicated invoke methods for zero and one
+ * argument avoid the construction of an argument array.<br>
+ * A MethodInvoker is created by a {@link Factory}. Available
+ * factories are {@link #REFLECTION} and {@link #METHOD_HANDLE}.
+ * An application can choose the factory by 
+ * {@link org.civilian.application.AppConfig#setMethodInvokerFactory(Factory) AppConfig}.<br>
+ * Both invokers throw an IllegalArgumentException if the target or the
+ * arguments do not match the method, e.g. if null is passed for a
+ * primitive parameter.
+ */
+public abstract class MethodInvoker
+{
+	/**
+	 * A Factory for MethodInvokers.
+	 */
+	public static abstract class Factory
+	{
+		/**
+		 * Creates a MethodInvoker for the method.
+		 */
+		public abstract MethodInvoker create(Method method);
+	}
+
+
+	/**
+	 * A Factory for MethodInvokers which use reflection.
+	 */
+	public static final Factory REFLECTION = new Factory()
+	{
+		@Override public MethodInvoker create(Method method)
+		{
+			return new ReflectionInvoker(method);
+		}
+
+
+		@Override public String toString()
+		{
+			return "reflection";
+		}
+	};
+
+
+	/**
+	 * A Factory for MethodInvokers which use method handles.
+	 * If a method handle can't be created for a method, the factory
+	 * falls back to a reflection invoker.
+	 */
+	public static final Factory METHOD_HANDLE = new Factory()
+	{
+		@Override public MethodInvoker create(Method method)
+		{
+			try
+			{
+				return new MethodHandleInvoker(method);
+			}
+			catch (IllegalAccessException e)
+			{
+				Logs.CONTROLLER.debug("cannot create method handle for " + method + ", using reflection", e);
+				return new ReflectionInvoker(method);
+			}
+		}
+
+
+		@Override public String toString()
+		{
+			return "methodhandle";
+		}
+	};
+
+
+	/**
+	 * The factory used by default.
+	 */
+	public static final Factory DEFAULT = METHOD_HANDLE;
+
+
+	/**
+	 * Invokes a method without arguments.
+	 */
+	public abstract void invoke(Object target) throws Exception;
+
+
+	/**
+	 * Invokes a method with a single argument.
+	 */
+	public abstract void invoke(Object target, Object arg) throws Exception;
+
+
+	/**
+	 * Invokes a method with arbitrary arguments.
+	 */
+	public abstract void invoke(Object target, Object[] args) throws Exception;
+
+
+	/**
+	 * Rethrows an exception thrown by the invoked method.
+	 */
+	protected static Exception rethrow(Throwable t) throws Exception
+	{
+		if (t instanceof Error)
+			throw (Error)t;
+		if (t instanceof Exception)
+			throw (Exception)t;
+		else
+			throw new IllegalStateException("unexpected throwable", t);
+	}
+}
+
+
+class ReflectionInvoker extends MethodInvoker
+{
+	public ReflectionInvoker(Method method)
+	{
+		method_ = method;
+		method_.setAccessible(true);
+	}
+
+
+	@Override public void invoke(Object target) throws Exception
+	{
+		invoke(target, (Object[])null);
+	}
+
+
+	@Override public void invoke(Object target, Object arg) throws Exception
+	{
+		invoke(target, new Object[] { arg });
+	}
+
+
+	@Override public void invoke(Object target, Object[] args) throws Exception
+	{
+		try
+		{
+			method_.invoke(target, args);
+		}
+		catch(InvocationTargetException e)
+		{
+			Throwable cause = e.getCause();
+			if ((cause instanceof Error) || (cause instanceof Exception))
+				throw rethrow(cause);
+			else
+				throw e;
+		}
+	}
+
+
+	private final Method method_;
+}
+
+
+class MethodHandleInvoker extends MethodInvoker
+{
+	private static final MethodType TYPE_0 = MethodType.methodType(void.class, Object.class);
+	private static final MethodType TYPE_1 = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType TYPE_N = MethodType.methodType(void.class, Object.class, Object[].class);
+
+
+	public MethodHandleInvoker(Method method) throws IllegalAccessException
+	{
+		method.setAccessible(true);
+		method_ 			= method;
+		MethodHandle handle = MethodHandles.lookup().unreflect(method);
+		int argCount		= method.getParameterTypes().length;
+		handle0_ = argCount == 0 ? handle.asType(TYPE_0) : null;
+		handle1_ = argCount == 1 ? handle.asType(TYPE_1) : null;
+		handleN_ = handle.asSpreader(Object[].class, argCount).asType(TYPE_N);
+	}
+
+
+	@Override public void invoke(Object target) throws Exception
+	{
+		if (handle0_ == null)
+			invoke(target, (Object[])null);
+		else
+		{
+			try
+			{
+				handle0_.invokeExact(target);
+			}
+			catch (Throwable t)
+			{
+				throw rethrow(t, target, null);
+			}
+		}
+	}
+
+
+	@Override public void invoke(Object target, Object arg) throws Exception
+	{
+		if (handle1_ == null)
+			invoke(target, new Object[] { arg });
+		else
+		{
+			try
+			{
+				handle1_.invokeExact(target, arg);
+			}
+			catch (Throwable t)
+			{
+				throw rethrow(t, target, new Object[] { arg });
+			}
+		}
+	}
+
+
+	@Override public void invoke(Object target, Object[] args) throws Exception
+	{
+		try
+		{
+			handleN_.invokeExact(target, args);
+		}
+		catch (Throwable t)
+		{
+			throw rethrow(t, target, args);
+		}
+	}
+	
+	
+	/**
+	 * The method handle throws a NullPointerException or ClassCastException
+	 * if the target or arguments do not match the method. These are converted 
+	 * into an IllegalArgumentException, like thrown by reflection. 
+	 * Exceptions thrown by the method itself are rethrown.
+	 */
+	private Exception rethrow(Throwable t, Object target, Object[] args) throws Exception
+	{
+		if (((t instanceof NullPointerException) || (t instanceof ClassCastException) || 
+			(t instanceof WrongMethodTypeException)) && !accepts(target, args))
+			throw new IllegalArgumentException("arguments do not match " + method_, t);
+		throw rethrow(t);
+	}
+	
+	
+	private boolean accepts(Object target, Object[] args)
+	{
+		if (!method_.getDeclaringClass().isInstance(target))
+			return false;
+		Class<?>[] types = method_.getParameterTypes();
+		if ((args == null ? 0 : args.length) != types.length)
+			return false;
+		for (int i=0; i<types.length; i++)
+		{
+			Class<?> type = types[i].isPrimitive() ? 
+				MethodType.methodType(types[i]).wrap().returnType() : 
+				types[i];
+			if (args[i] == null ? types[i].isPrimitive() : !type.isInstance(args[i]))
+				return false;
+		}
+		return true;
+	}
+
+
+	private final Method method_;
+	private final MethodHandle handle0_;
+	private final MethodHandle handle1_;
+	private final MethodHandle handleN_;
+}
@@ -16,10 +16,13 @@
 package org.civilian.controller.classloader;
 
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
 import org.civilian.internal.Logs;
 import org.civilian.util.IoUtil;
 
@@ -116,13 +119,17 @@ public class NonDelegatingClassLoader extends ClassLoader
 		{
 			try
 			{
+				File file = new File(url.toURI());
+				long lastModified = file.lastModified();
 				try(InputStream in = url.openStream())
 				{
 					byte[] data = IoUtil.readBytes(in);
-	                return defineClass(name, data, 0, data.length);
+	                Class<?> c = defineClass(name, data, 0, data.length);
+					classFiles_.add(new ClassFile(file, lastModified));
+					return c;
 				}
 			}
-			catch(IOException e)
+			catch(IOException | URISyntaxException e)
 			{
 				Logs.CLASSLOADER.error("error when loading class from '" + url + "'", e);
 			}
@@ -131,6 +138,26 @@ public class NonDelegatingClassLoader extends ClassLoader
 	}
 
 
+	/**
+	 * Returns if a class file of a class defined by this class loader
+	 * was modified or deleted since the class was loaded. 
+	 * In this case a new class loader is needed to see the changes.
+	 */
+	public synchronized boolean isModified()
+	{
+		for (ClassFile classFile : classFiles_)
+		{
+			if (classFile.isModified())
+			{
+				if (Logs.CLASSLOADER.isDebugEnabled())
+					Logs.CLASSLOADER.debug("modified:  " + classFile.file);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	
 	private boolean canLoad(String name)
 	{
 		// if the class is an inner class, we may not load it if
@@ -160,6 +187,28 @@ public class NonDelegatingClassLoader extends ClassLoader
 	}
 	
 	
+	private static class ClassFile
+	{
+		public ClassFile(File file, long lastModified)
+		{
+			this.file 			= file;
+			this.lastModified	= lastModified;
+		}
+		
+		
+		public boolean isModified()
+		{
+			// lastModified() returns 0 if the file was deleted
+			return file.lastModified() != lastModified;
+		}
+		
+		
+		public final File file;
+		public final long lastModified;
+	}
+	
+	
 	private ClassList excludes_ = new ClassList();
 	private ClassList includes_ = new ClassList();
+	private ArrayList<ClassFile> classFiles_ = new ArrayList<>();
 }
@@ -22,7 +22,7 @@ package org.civilian.controller.classloader;
  */
 public class ReloadConfig
 {
-	public ClassLoader createClassLoader()
+	public NonDelegatingClassLoader createClassLoader()
 	{
 		return new NonDelegatingClassLoader(getClass().getClassLoader(), includes(), excludes());
 	}
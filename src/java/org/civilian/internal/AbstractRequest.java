@@ -47,6 +47,7 @@ import org.civilian.request.RequestStreamInterceptor;
 import org.civilian.resource.ExtensionMapping;
 import org.civilian.resource.Path;
 import org.civilian.resource.PathParam;
+import org.civilian.resource.RouteParams;
 import org.civilian.resource.Url;
 import org.civilian.text.LocaleService;
 import org.civilian.type.Type;
@@ -239,6 +240,8 @@ public abstract class AbstractRequest implements Request
 		Check.notNull(value, "value");
 		if (pathParams_ == null)
 			pathParams_ = new HashMap<>();
+		else if (pathParams_ instanceof RouteParams)
+			pathParams_ = new HashMap<>(pathParams_); // RouteParams are read-only
 		pathParams_.put(pathParam, value);
 	}
 
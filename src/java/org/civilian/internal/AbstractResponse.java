@@ -49,6 +49,7 @@ import org.civilian.response.UriEncoder;
 import org.civilian.text.LocaleService;
 import org.civilian.type.lib.LocaleSerializer;
 import org.civilian.util.Check;
+import org.civilian.util.TabWriter;
 
 
 /**
@@ -418,7 +419,7 @@ public abstract class AbstractResponse implements Response
 			contentOutput_ = originalWriter;
 			contentOutput_ = (writerInterceptor_ != null) ?
 				new InterceptedResponseWriter(originalWriter, writerInterceptor) :
-				new ResponseWriter(originalWriter);
+				new ResponseWriter(originalWriter, false, ResponseWriter.DEFAULT_BUFFER_SIZE);
 			return true;
 		}
 	}
@@ -438,7 +439,7 @@ public abstract class AbstractResponse implements Response
 		if ((streamInterceptor != null) || (writerInterceptor != null))
 			contentOutput_ = new InterceptedResponseWriter(originalStream, streamInterceptor, writerInterceptor, contentEncoding_);
 		else
-			contentOutput_ = new ResponseWriter(new OutputStreamWriter(originalStream, contentEncoding_));
+			contentOutput_ = new ResponseWriter(originalStream, contentEncoding_, ResponseWriter.DEFAULT_BUFFER_SIZE);
 	}
 		
 
@@ -593,6 +594,8 @@ public abstract class AbstractResponse implements Response
 	@Override public void resetBuffer()
 	{
 		resetBufferImpl();
+		if (contentOutput_ instanceof TabWriter)
+			((TabWriter)contentOutput_).resetBuffer();
 		if (contentOutput_ instanceof InterceptedOutput)
 			((InterceptedOutput)contentOutput_).reset();
 	}
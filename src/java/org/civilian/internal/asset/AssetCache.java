@@ -16,60 +16,222 @@
 package org.civilian.internal.asset;
 
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.civilian.asset.Asset;
+import org.civilian.asset.AssetConfig;
 import org.civilian.asset.AssetService;
 import org.civilian.content.ContentTypeLookup;
 import org.civilian.internal.Logs;
 import org.civilian.resource.Path;
 import org.civilian.util.Check;
+import org.civilian.util.LruCache;
 
 
 /**
  * AssetCache maintains a cache for assets.
+ * The total memory used by cached assets is limited. Entries are evicted
+ * using a segmented LRU strategy: new entries are put into a probation segment
+ * and are promoted into a protected segment when accessed again.
+ * This prevents that a scan over many rarely used assets evicts
+ * frequently used assets. Requests for assets in the protected segment
+ * don't lock the cache: they just mark the entry as referenced and
+ * referenced entries get a second chance before they are demoted.<br>
+ * Additionally the paths of assets which were not found can be remembered
+ * for a limited time in a bounded not-found cache. Requests for such paths
+ * are then answered by a single cache lookup without asking the implementation.<br>
+ * Concurrent requests for the same asset which is not cached are coalesced:
+ * only one thread asks the implementation and reads the content, the other
+ * threads wait for its result.<br>
+ * By default cached assets are checked for validity on every request. 
+ * Alternatively the asset directories can be watched for changes, or assets
+ * can be treated as immutable.
+ * @see #setNotFoundCache(int, long)
+ * @see #setInvalidation(AssetConfig.Invalidation)
  */
 public class AssetCache extends AssetService
 {
 	/**
-	 * Creates a new AssetCache.
+	 * The estimated memory size of a cache entry without asset content.
+	 */
+	static final int ENTRY_SIZE = 256;
+	
+	/**
+	 * The percentage of the memory budget used by the protected segment.
+	 */
+	private static final int PROTECTED_PERCENT = 80;
+	
+	
+	/**
+	 * Creates a new AssetCache with an unlimited total memory size.
 	 * @param implementation provides assets if they are not yet cached.
 	 * @param maxMemSize if the size of an Asset is smaller than maxMemSize
-	 * 		than its contents will be held in memory. 
+	 * 		than its contents will be held in memory.
 	 */
 	public AssetCache(AssetService implementation, int maxMemSize)
+	{
+		this(implementation, maxMemSize, Long.MAX_VALUE);
+	}
+	
+	
+	/**
+	 * Creates a new AssetCache.
+	 * @param implementation provides assets if they are not yet cached.
+	 * @param maxMemSize if the size of an Asset is smaller than maxMemSize
+	 * 		than its contents will be held in memory.
+	 * @param maxTotalSize the maximum memory size of all cached assets. If exceeded
+	 * 		least recently used assets are evicted from the cache.
+	 */
+	public AssetCache(AssetService implementation, int maxMemSize, long maxTotalSize)
 	{
 		implementation_ = Check.notNull(implementation, "implementation");
+		Check.greaterEquals(maxTotalSize, ENTRY_SIZE, "maxTotalSize");
 		maxMemSize_  	= maxMemSize;
+		maxTotalSize_	= maxTotalSize;
+		maxProtectedSize_ = maxTotalSize / 100 * PROTECTED_PERCENT;
 	}
 	
-
+	
 	/**
-	 * Forwards to the implementation.
+	 * Configures the not-found cache. 
+	 * @param maxSize the maximum number of remembered paths of assets which
+	 * 		were not found. If 0 the not-found cache is disabled.
+	 * @param ttlMillis the time in milliseconds a not-found path is remembered.
+	 * 		After that time the implementation is asked again for the asset.
+	 */
+	public void setNotFoundCache(int maxSize, long ttlMillis)
+	{
+		Check.greaterEquals(maxSize, 0, "maxSize");
+		Check.greaterEquals(ttlMillis, 1L, "ttlMillis");
+		notFoundTtl_	= TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		notFound_		= maxSize > 0 ? new LruCache<String,Long>(maxSize) : null;
+	}
+	
+	
+	/**
+	 * Sets where the content of cached assets is stored.
+	 * By default it is stored on the heap.
+	 */
+	public void setStorage(Asset.Storage storage)
+	{
+		storage_ = Check.notNull(storage, "storage");
+	}
+	
+	
+	/**
+	 * Clears the not-found cache.
+	 */
+	public void clearNotFoundCache()
+	{
+		LruCache<String,Long> notFound = notFound_;
+		if (notFound != null)
+			notFound.clear();
+	}
+	
+	
+	/**
+	 * Sets how cached assets are invalidated. The default is
+	 * {@link AssetConfig.Invalidation#CHECK}. If the invalidation is
+	 * {@link AssetConfig.Invalidation#WATCH}, the asset directories will be 
+	 * watched after the AssetCache was initialized.
+	 */
+	public void setInvalidation(AssetConfig.Invalidation invalidation)
+	{
+		invalidation_ = Check.notNull(invalidation, "invalidation");
+	}
+	
+	
+	/**
+	 * Forwards to the implementation and starts watching
+	 * the asset directories if needed.
 	 */
 	@Override public void init(Path parentPath, String defaultEncoding, ContentTypeLookup lookup)
 	{
 		implementation_.init(parentPath, defaultEncoding, lookup);
+		if ((invalidation_ == AssetConfig.Invalidation.WATCH) && (watcher_ == null))
+		{
+			ArrayList<File> dirs = new ArrayList<>();
+			implementation_.collectDirectories(dirs);
+			try
+			{
+				watcher_ = new AssetWatcher(this, dirs);
+			}
+			catch (IOException e)
+			{
+				Logs.ASSET.warn("cannot watch asset directories, assets will be checked on every request", e);
+				invalidation_ = AssetConfig.Invalidation.CHECK;
+			}
+		}
 	}
-
+	
+	
+	/**
+	 * Stops watching the asset directories and forwards to the implementation.
+	 */
+	@Override public void close()
+	{
+		if (watcher_ != null)
+		{
+			try
+			{
+				watcher_.close();
+			}
+			catch (IOException e)
+			{
+				Logs.ASSET.warn("cannot close asset watcher", e);
+			}
+			watcher_ = null;
+		}
+		implementation_.close();
+	}
+	
 	
 	/**
-	 * Returns the path of the AssetService implementation. 
+	 * Forwards to the implementation.
+	 */
+	@Override public void collectDirectories(List<File> dirs)
+	{
+		implementation_.collectDirectories(dirs);
+	}
+	
+	
+	/**
+	 * Forwards to the implementation.
+	 */
+	@Override public void collectAssetPaths(List<String> paths)
+	{
+		implementation_.collectAssetPaths(paths);
+	}
+	
+	
+	/**
+	 * Returns the path of the AssetService implementation.
 	 */
 	@Override public Path getPath()
 	{
 		return implementation_.getPath();
 	}
-
+	
 	
 	/**
-	 * Returns the path of the AssetService implementation. 
+	 * Returns the path of the AssetService implementation.
 	 */
 	@Override public Path getRelativePath()
 	{
 		return implementation_.getRelativePath();
 	}
-
-
+	
+	
 	/**
 	 * Forwards to the implementation.
 	 */
@@ -77,64 +239,383 @@ public class AssetCache extends AssetService
 	{
 		return implementation_.hasAssets();
 	}
-
+	
 	
 	/**
 	 * Returns the Asset. It looks up the cache and if not found
-	 * or invalid, asks the implementation to provide the asset. 
+	 * or invalid, asks the implementation to provide the asset.
 	 */
 	@Override public Asset getAsset(Path assetPath) throws Exception
 	{
-		Asset asset = getCachedAsset(assetPath);
+		String key = assetPath.toString();
+		LruCache<String,Long> notFound = notFound_;
+		if ((notFound != null) && isNotFound(notFound, key))
+			return null;
+		
+		Asset asset = getCachedAsset(key, assetPath);
 		if (asset == null)
-			asset = findAsset(assetPath);
+		{
+			asset = loadAsset(key, assetPath);
+			if ((asset == null) && (notFound != null))
+				notFound.put(key, Long.valueOf(System.nanoTime() + notFoundTtl_));
+		}
 		return asset;
 	}
 	
 	
-	private Asset getCachedAsset(Path assetPath)
+	private static boolean isNotFound(LruCache<String,Long> notFound, String key)
 	{
-		String key  = assetPath.toString();
-		Asset asset = cache_.get(key);
-		if (asset != null)
+		Long expires = notFound.get(key);
+		if (expires == null)
+			return false;
+		if (System.nanoTime() - expires.longValue() < 0)
+			return true;
+		notFound.remove(key);
+		return false;
+	}
+	
+	
+	private Asset getCachedAsset(String key, Path assetPath)
+	{
+		Entry entry = entries_.get(key);
+		if (entry != null)
 		{
-			if (!asset.isValid())
+			if (entry.isProtected)
 			{
-				cache_.remove(key);
-				asset = null; 
+				if (!entry.referenced)
+					entry.referenced = true;
+			}
+			else
+			{
+				synchronized(this)
+				{
+					if (!entry.isProtected && (probation_.get(key) == entry))
+					{
+						probation_.remove(key);
+						promote(entry);
+					}
+				}
+			}
+			
+			if ((invalidation_ == AssetConfig.Invalidation.CHECK) && !entry.asset.isValid())
+			{
+				remove(entry);
+				entry = null;
 			}
 			else if (Logs.ASSET.isTraceEnabled())
 				Logs.ASSET.trace("{} cached", assetPath);
 		}
-		return asset;
+		
+		(entry != null ? hits_ : misses_).incrementAndGet();
+		return entry != null ? entry.asset : null;
 	}
-
 	
-	private Asset findAsset(Path assetPath) throws Exception
+	
+	/**
+	 * Finds the asset, unless another thread is already loading
+	 * the same asset. In this case its result is awaited.
+	 * If another thread finished loading the asset just before,
+	 * the cached asset is returned.
+	 */
+	private Asset loadAsset(final String key, final Path assetPath) throws Exception
+	{
+		FutureTask<Asset> task = new FutureTask<>(new Callable<Asset>()
+		{
+			@Override public Asset call() throws Exception
+			{
+				Entry entry = entries_.get(key);
+				if ((entry != null) && ((invalidation_ != AssetConfig.Invalidation.CHECK) || entry.asset.isValid()))
+					return entry.asset;
+				return findAsset(key, assetPath);
+			}
+		});
+		
+		FutureTask<Asset> running = loading_.putIfAbsent(key, task);
+		if (running == null)
+		{
+			try
+			{
+				task.run();
+			}
+			finally
+			{
+				loading_.remove(key);
+			}
+			running = task;
+		}
+		
+		try
+		{
+			return running.get();
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception)
+				throw (Exception)cause;
+			if (cause instanceof Error)
+				throw (Error)cause;
+			throw e;
+		}
+	}
+	
+	
+	private Asset findAsset(String key, Path assetPath) throws Exception
 	{
 		Asset asset = implementation_.getAsset(assetPath);
 		if (asset != null)
 		{
-			if (asset.length() <= maxMemSize_)
-				asset.readContent();
-			Asset oldAsset = cache_.putIfAbsent(assetPath.toString(), asset);
-			if (oldAsset != null)
-				asset = oldAsset;
+			// assets which don't fit into the memory budget are streamed
+			long length = asset.length();
+			if ((length <= maxMemSize_) && (length + ENTRY_SIZE <= maxTotalSize_))
+			{
+				asset.readContent(storage_);
+				asset.readGzipContent();
+			}
+			asset = add(new Entry(key, asset));
 		}
 		return asset;
 	}
 	
 	
+	/**
+	 * Removes all cached assets which are no longer valid
+	 * and clears the not-found cache.
+	 */
+	public void revalidate()
+	{
+		clearNotFoundCache();
+		
+		ArrayList<Entry> entries;
+		synchronized(this)
+		{
+			entries = new ArrayList<>(probation_.values());
+			entries.addAll(protected_.values());
+		}
+		int removed = 0;
+		for (Entry entry : entries)
+		{
+			if (!entry.asset.isValid())
+			{
+				remove(entry);
+				removed++;
+			}
+		}
+		if ((removed > 0) && Logs.ASSET.isDebugEnabled())
+			Logs.ASSET.debug("{} changed assets evicted", Integer.valueOf(removed));
+	}
+	
+	
+	/**
+	 * Adds a new entry to the probation segment, unless an entry
+	 * for the same key was added meanwhile.
+	 * @return the cached asset
+	 */
+	private synchronized Asset add(Entry entry)
+	{
+		Entry old = entries_.get(entry.key);
+		if (old != null)
+			return old.asset;
+		
+		entries_.put(entry.key, entry);
+		probation_.put(entry.key, entry);
+		size_ += entry.size;
+		while (size_ > maxTotalSize_)
+		{
+			Entry victim = first(probation_);
+			if (victim == entry)
+			{
+				if (protected_.isEmpty())
+					break;
+				victim = first(protected_);
+			}
+			remove(victim.key, victim.isProtected ? protected_ : probation_);
+			evictions_++;
+		}
+		return entry.asset;
+	}
+	
+	
+	/**
+	 * Moves an entry from the probation segment into the protected segment.
+	 * If the protected segment gets too large, its oldest entries
+	 * are moved back to the probation segment, unless they were
+	 * referenced since they were promoted or last checked.
+	 */
+	private void promote(Entry entry)
+	{
+		entry.isProtected = true;
+		entry.referenced  = false;
+		protected_.put(entry.key, entry);
+		protectedSize_ += entry.size;
+		while ((protectedSize_ > maxProtectedSize_) && (protected_.size() > 1))
+		{
+			Entry demoted = first(protected_);
+			protected_.remove(demoted.key);
+			if (demoted.referenced && (demoted != entry))
+			{
+				// second chance: move to the end of the segment
+				demoted.referenced = false;
+				protected_.put(demoted.key, demoted);
+				continue;
+			}
+			protectedSize_ -= demoted.size;
+			demoted.isProtected = false;
+			probation_.put(demoted.key, demoted);
+		}
+	}
+	
+	
+	private synchronized void remove(Entry entry)
+	{
+		LinkedHashMap<String,Entry> segment = entry.isProtected ? protected_ : probation_;
+		if (segment.get(entry.key) == entry)
+			remove(entry.key, segment);
+	}
+	
+	
+	private void remove(String key, LinkedHashMap<String,Entry> segment)
+	{
+		Entry entry = segment.remove(key);
+		entries_.remove(key);
+		size_ -= entry.size;
+		if (entry.isProtected)
+			protectedSize_ -= entry.size;
+	}
+	
+	
+	private static Entry first(LinkedHashMap<String,Entry> segment)
+	{
+		Iterator<Entry> it = segment.values().iterator();
+		return it.next();
+	}
+	
+	
+	/**
+	 * Returns the number of cached assets.
+	 */
+	public synchronized int getCount()
+	{
+		return probation_.size() + protected_.size();
+	}
+	
+	
+	/**
+	 * Returns the estimated memory size of all cached assets.
+	 */
+	public synchronized long getSize()
+	{
+		return size_;
+	}
+	
+	
+	/**
+	 * Returns the number of requests for cached and valid assets.
+	 */
+	public long getHits()
+	{
+		return hits_.get();
+	}
+	
+	
+	/**
+	 * Returns the number of requests for assets which were not cached
+	 * or not valid.
+	 */
+	public long getMisses()
+	{
+		return misses_.get();
+	}
+	
+	
+	/**
+	 * Returns the number of assets evicted from the cache
+	 * to stay within the total memory size.
+	 */
+	public synchronized long getEvictions()
+	{
+		return evictions_;
+	}
+	
+	
+	/**
+	 * Returns the number of requests for assets which were answered
+	 * by the not-found cache.
+	 */
+	public long getNotFoundHits()
+	{
+		LruCache<String,Long> notFound = notFound_;
+		return notFound != null ? notFound.getHits() : 0L;
+	}
+	
+	
 	/**
 	 * Returns an info string.
 	 */
 	@Override public String getInfo()
 	{
-		return "AssetCache[maxMem=" + maxMemSize_ + "]\n" + implementation_.getInfo();
+		StringBuilder s = new StringBuilder();
+		s.append("AssetCache[maxMem=").append(maxMemSize_);
+		if (storage_ != Asset.Storage.HEAP)
+			s.append(", storage=").append(storage_);
+		if (invalidation_ != AssetConfig.Invalidation.CHECK)
+			s.append(", invalidation=").append(invalidation_);
+		if (maxTotalSize_ != Long.MAX_VALUE)
+			s.append(", maxTotal=").append(maxTotalSize_);
+		synchronized(this)
+		{
+			s.append(", count=").append(getCount());
+			s.append(", bytes=").append(size_);
+			s.append(", hits=").append(hits_.get());
+			s.append(", misses=").append(misses_.get());
+			s.append(", evictions=").append(evictions_);
+		}
+		LruCache<String,Long> notFound = notFound_;
+		if (notFound != null)
+		{
+			s.append(", notFound=").append(notFound.size());
+			s.append(", notFoundHits=").append(notFound.getHits());
+		}
+		s.append("]\n");
+		s.append(implementation_.getInfo());
+		return s.toString();
+	}
+	
+	
+	private static class Entry
+	{
+		public Entry(String key, Asset asset)
+		{
+			this.key 	= key;
+			this.asset	= asset;
+			this.size	= ENTRY_SIZE + (asset.isContentLoaded() ? asset.length() : 0) + Math.max(asset.gzipLength(), 0);
+		}
+		
+		
+		public final String key;
+		public final Asset asset;
+		public final long size;
+		public volatile boolean isProtected;
+		public volatile boolean referenced;
 	}
 	
 	
-	private int maxMemSize_;
-	private AssetService implementation_;
-	private ConcurrentHashMap<String,Asset> cache_ = new ConcurrentHashMap<>();
+	private final int maxMemSize_;
+	private final long maxTotalSize_;
+	private final long maxProtectedSize_;
+	private final AssetService implementation_;
+	private final LinkedHashMap<String,Entry> probation_ = new LinkedHashMap<>();
+	private final LinkedHashMap<String,Entry> protected_ = new LinkedHashMap<>();
+	private final ConcurrentHashMap<String,Entry> entries_ = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String,FutureTask<Asset>> loading_ = new ConcurrentHashMap<>();
+	private long size_;
+	private long protectedSize_;
+	private final AtomicLong hits_ = new AtomicLong();
+	private final AtomicLong misses_ = new AtomicLong();
+	private long evictions_;
+	private volatile LruCache<String,Long> notFound_;
+	private long notFoundTtl_;
+	private volatile Asset.Storage storage_ = Asset.Storage.HEAP;
+	private volatile AssetConfig.Invalidation invalidation_ = AssetConfig.Invalidation.CHECK;
+	private AssetWatcher watcher_;
 }
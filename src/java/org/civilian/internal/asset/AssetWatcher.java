@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.internal.asset;
+
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import org.civilian.internal.Logs;
+
+
+/**
+ * AssetWatcher watches asset directories and their subdirectories for changes
+ * and tells an AssetCache to revalidate its assets when changes were detected.
+ * The events are processed in a daemon thread.
+ */
+class AssetWatcher implements Runnable, Closeable
+{
+	public AssetWatcher(AssetCache cache, List<File> dirs) throws IOException
+	{
+		cache_			= cache;
+		watchService_	= FileSystems.getDefault().newWatchService();
+		try
+		{
+			for (File dir : dirs)
+				register(dir.toPath());
+		}
+		catch (IOException e)
+		{
+			watchService_.close();
+			throw e;
+		}
+
+		Thread thread = new Thread(this, "civilian-asset-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+
+	/**
+	 * Registers a directory and all its subdirectories.
+	 */
+	private void register(Path dir) throws IOException
+	{
+		Files.walkFileTree(dir, new SimpleFileVisitor<Path>()
+		{
+			@Override public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+			{
+				dir.register(watchService_,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_DELETE,
+					StandardWatchEventKinds.ENTRY_MODIFY);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+
+	@Override public void run()
+	{
+		try
+		{
+			while (true)
+			{
+				// process all pending events, then revalidate once
+				WatchKey key = watchService_.take();
+				do
+				{
+					processEvents(key);
+				}
+				while ((key = watchService_.poll()) != null);
+
+				cache_.revalidate();
+			}
+		}
+		catch (ClosedWatchServiceException | InterruptedException e)
+		{
+			// closed
+		}
+		catch (RuntimeException e)
+		{
+			Logs.ASSET.error("asset watcher stopped", e);
+		}
+	}
+
+
+	private void processEvents(WatchKey key)
+	{
+		Path dir = (Path)key.watchable();
+		for (WatchEvent<?> event : key.pollEvents())
+		{
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE)
+			{
+				Path child = dir.resolve((Path)event.context());
+				if (Files.isDirectory(child))
+				{
+					try
+					{
+						register(child);
+					}
+					catch (IOException e)
+					{
+						Logs.ASSET.warn("cannot watch " + child, e);
+					}
+				}
+			}
+		}
+		key.reset();
+	}
+
+
+	/**
+	 * Stops watching.
+	 */
+	@Override public void close() throws IOException
+	{
+		watchService_.close();
+	}
+
+
+	private final AssetCache cache_;
+	private final WatchService watchService_;
+}
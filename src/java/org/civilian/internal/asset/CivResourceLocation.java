@@ -16,8 +16,11 @@
 package org.civilian.internal.asset;
 
 
+import java.io.File;
+import java.io.IOException;
 import org.civilian.asset.Asset;
 import org.civilian.content.ContentType;
+import org.civilian.internal.Logs;
 import org.civilian.resource.Path;
 
 
@@ -27,6 +30,8 @@ import org.civilian.resource.Path;
  * It also serves a virtual asset with relative path "/angular/civ-init.js",
  * (={@link #ANGULAR_INIT_SCRIPT}) for initialization
  * of the Civilian's angular support.
+ * If Civilian is loaded from a jar file, the assets are served
+ * by a {@link JarLocation} which indexes the jar entries once.
  */
 public class CivResourceLocation extends JavaResourceLocation
 {
@@ -61,10 +66,12 @@ public class CivResourceLocation extends JavaResourceLocation
 
 	public CivResourceLocation(String path, String appPath, boolean develop)
 	{
-		super(path != null ? path : DEFAULT_PATH, "civassets" /* the directory of the assets in civilian.jar*/);
+		super(path != null ? path : DEFAULT_PATH, RESOURCE_PREFIX);
 		
 		// civassets are encoded in UTF-8
 		setEncoding("UTF-8"); 
+		
+		jar_ = createJarLocation(); 
 
 		if (appPath != null)
 		{
@@ -81,6 +88,27 @@ public class CivResourceLocation extends JavaResourceLocation
 	}
 
 	
+	private static JarLocation createJarLocation()
+	{
+		File jarFile = JarLocation.getJarFile(CivResourceLocation.class);
+		if (jarFile != null)
+		{
+			try
+			{
+				JarLocation jar = new JarLocation(DEFAULT_PATH, jarFile, RESOURCE_PREFIX);
+				if (jar.size() > 0)
+					return jar;
+				jar.close();
+			}
+			catch (IOException e)
+			{
+				Logs.ASSET.warn("cannot index " + jarFile, e);
+			}
+		}
+		return null;
+	}
+
+	
 	/**
 	 * Returns the requested asset or builds it if the path is {@link #ANGULAR_INIT_SCRIPT} 
 	 */
@@ -88,10 +116,33 @@ public class CivResourceLocation extends JavaResourceLocation
 	{
 		if (assetPath.getValue().equals(ANGULAR_INIT_SCRIPT))
 			return initScript_;
+		else if (jar_ != null)
+			return jar_.find(assetPath);
 		else
 			return super.find(assetPath);
 	}
+	
+	
+	/**
+	 * Closes the jar file if used.
+	 */
+	@Override public void close()
+	{
+		if (jar_ != null)
+			jar_.close();
+	}
+	
+	
+	/**
+	 * Returns a debug string.
+	 */
+	@Override protected String getInfoParam()
+	{
+		return jar_ != null ? jar_.getInfoParam() : super.getInfoParam();
+	}
 
 
+	private static final String RESOURCE_PREFIX = "civassets"; // the directory of the assets in civilian.jar
 	private Asset initScript_;
+	private JarLocation jar_;
 }
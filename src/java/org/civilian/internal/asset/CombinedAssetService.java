@@ -16,6 +16,8 @@
 package org.civilian.internal.asset;
 
 
+import java.io.File;
+import java.util.List;
 import org.civilian.asset.Asset;
 import org.civilian.asset.AssetConfig;
 import org.civilian.asset.AssetService;
@@ -97,6 +99,36 @@ public class CombinedAssetService extends AssetService
 	}
 
 	
+	/**
+	 * Forwards to the children.
+	 */
+	@Override public void collectDirectories(List<File> dirs)
+	{
+		for (AssetService child : children_)
+			child.collectDirectories(dirs);
+	}
+
+	
+	/**
+	 * Forwards to the children.
+	 */
+	@Override public void collectAssetPaths(List<String> paths)
+	{
+		for (AssetService child : children_)
+			child.collectAssetPaths(paths);
+	}
+	
+	
+	/**
+	 * Forwards to the children.
+	 */
+	@Override public void close()
+	{
+		for (AssetService child : children_)
+			child.close();
+	}
+
+	
 	/**
 	 * Returns an info string.
 	 */
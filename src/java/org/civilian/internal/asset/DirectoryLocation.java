@@ -17,6 +17,7 @@ package org.civilian.internal.asset;
 
 
 import java.io.File;
+import java.util.List;
 import org.civilian.asset.Asset;
 import org.civilian.asset.AssetLocation;
 import org.civilian.resource.Path;
@@ -47,12 +48,55 @@ public class DirectoryLocation extends AssetLocation
 
 	/**
 	 * Returns a FileAsset, if the file corresponding to the path exists.
+	 * If a sibling file with extension ".gz" exists which is not older than 
+	 * the file, it is used as gzip compressed variant of the asset.
 	 */
 	@Override protected Asset find(Path assetPath) throws Exception
 	{
 		String name = StringUtil.cutLeft(assetPath.getValue(), "/");
 		File file = new File(rootDir_, name);
-		return file.exists() && !file.isDirectory() ? new FileAsset(file) : null;
+		if (!file.exists() || file.isDirectory())
+			return null;
+		
+		File gzipFile = new File(rootDir_, name + ".gz");
+		if (!gzipFile.isFile() || (gzipFile.lastModified() < file.lastModified()))
+			gzipFile = null;
+		return new FileAsset(file, gzipFile);
+	}
+	
+
+	/**
+	 * Adds the root directory to the list.
+	 */
+	@Override public void collectDirectories(List<File> dirs)
+	{
+		dirs.add(rootDir_);
+	}
+	
+	
+	/**
+	 * Adds the paths of all files below the root directory.
+	 */
+	@Override public void collectAssetPaths(List<String> paths)
+	{
+		collectAssetPaths(rootDir_, getRelativePath(), paths);
+	}
+	
+	
+	private static void collectAssetPaths(File dir, Path dirPath, List<String> paths)
+	{
+		File[] files = dir.listFiles();
+		if (files != null)
+		{
+			for (File file : files)
+			{
+				Path path = dirPath.add(file.getName());
+				if (file.isDirectory())
+					collectAssetPaths(file, path, paths);
+				else
+					paths.add(path.toString());
+			}
+		}
 	}
 	
 
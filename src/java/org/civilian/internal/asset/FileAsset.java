@@ -20,7 +20,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import org.civilian.asset.Asset;
+import org.civilian.util.IoUtil;
 
 
 /**
@@ -35,10 +38,26 @@ public class FileAsset extends Asset
 	 * @param file the file corresponding to the asset.
 	 */
 	public FileAsset(File file)
+	{
+		this(file, null);
+	}
+	
+	
+	/**
+	 * Creates a new FileAsset
+	 * @param file the file corresponding to the asset.
+	 * @param gzipFile a file which contains the gzip compressed content, or null
+	 */
+	public FileAsset(File file, File gzipFile)
 	{
 		file_ = file;
-		setLength((int)file_.length());
+		setLength(file_.length());
 		setLastModified(file.lastModified());
+		if (gzipFile != null)
+		{
+			gzipFile_ 			= gzipFile;
+			gzipLastModified_ 	= gzipFile.lastModified();
+		}
 	}
 	
 	
@@ -51,12 +70,46 @@ public class FileAsset extends Asset
 	}
 
 	
+	/**
+	 * Maps the file into memory if the storage is {@link Storage#MAPPED}.
+	 */
+	@Override protected ByteBuffer readBuffer(Storage storage) throws IOException
+	{
+		if (storage != Storage.MAPPED)
+			return super.readBuffer(storage);
+		try(FileInputStream in = new FileInputStream(file_))
+		{
+			return in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length());
+		}
+	}
+
+	
+	/**
+	 * Reads the content of the gzip file, if available.
+	 * Else the content is compressed. 
+	 */
+	@Override public void readGzipContent() throws IOException
+	{
+		if ((gzipFile_ != null) && (gzipLength() < 0))
+		{
+			try(InputStream in = new FileInputStream(gzipFile_))
+			{
+				setGzipContent(IoUtil.readBytes(in));
+			}
+		}
+		else
+			super.readGzipContent();
+	}
+
+	
 	/**
 	 * Tests if the file size and its modified date has not changed.
 	 */
 	@Override public boolean isValid()
 	{
-		return (length() == file_.length()) && (lastModified() == file_.lastModified());
+		return (length() == file_.length()) && 
+			(lastModified() == file_.lastModified()) &&
+			((gzipFile_ == null) || (gzipLastModified_ == gzipFile_.lastModified()));
 	}
 
 	
@@ -67,4 +120,6 @@ public class FileAsset extends Asset
 	
 	
 	private File file_;
+	private File gzipFile_;
+	private long gzipLastModified_;
 }
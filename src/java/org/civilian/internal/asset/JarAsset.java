@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.internal.asset;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.civilian.asset.Asset;
+
+
+/**
+ * JarAsset is an Asset based on an entry of an open jar file.
+ * Since the jar file is not expected to change while open,
+ * a JarAsset is always valid.
+ */
+public class JarAsset extends Asset
+{
+	/**
+	 * Creates a new JarAsset.
+	 * @param jarFile the jar file
+	 * @param entry the entry corresponding to the asset.
+	 */
+	public JarAsset(JarFile jarFile, JarEntry entry)
+	{
+		jarFile_ 	= jarFile;
+		entry_		= entry;
+		setLength(entry.getSize());
+		setLastModified(entry.getTime());
+	}
+
+
+	/**
+	 * Returns an InputStream for the jar entry.
+	 */
+	@Override public InputStream getInputStream() throws IOException
+	{
+		return jarFile_.getInputStream(entry_);
+	}
+
+
+	/**
+	 * Returns true.
+	 */
+	@Override public boolean isValid()
+	{
+		return true;
+	}
+
+
+	@Override public String toString()
+	{
+		return "jar:" + jarFile_.getName() + "!/" + entry_.getName();
+	}
+
+
+	private final JarFile jarFile_;
+	private final JarEntry entry_;
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.internal.asset;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.civilian.asset.Asset;
+import org.civilian.asset.AssetLocation;
+import org.civilian.internal.Logs;
+import org.civilian.resource.Path;
+import org.civilian.util.Check;
+import org.civilian.util.StringUtil;
+
+
+/**
+ * JarLocation is an AssetLocation which serves the entries of a jar file
+ * below a resource prefix. The jar file is opened once and its entries are
+ * indexed, therefore a lookup only costs a map access.
+ * The assets know their length and modification time.
+ */
+public class JarLocation extends AssetLocation
+{
+	/**
+	 * Returns the jar file which contains a class.
+	 * @return the jar file or null if the class was not loaded from a jar file.
+	 */
+	public static File getJarFile(Class<?> c)
+	{
+		try
+		{
+			CodeSource source = c.getProtectionDomain().getCodeSource();
+			URL url = source != null ? source.getLocation() : null;
+			if ((url != null) && "file".equalsIgnoreCase(url.getProtocol()))
+			{
+				File file = new File(url.toURI());
+				if (file.isFile())
+					return file;
+			}
+		}
+		catch (Exception e)
+		{
+			Logs.ASSET.debug("cannot determine jar file of " + c.getName(), e);
+		}
+		return null;
+	}
+
+
+	/**
+	 * Creates a new JarLocation.
+	 * @param path the location path
+	 * @param jarFile the jar file
+	 * @param resourcePrefix the prefix path of the entries.
+	 * 	Must not be empty for security reasons.
+	 */
+	public JarLocation(String path, File jarFile, String resourcePrefix) throws IOException
+	{
+		super(path);
+		Check.notNull(jarFile, "jarFile");
+		Check.notEmpty(resourcePrefix, "resourcePrefix");
+
+		resourcePrefix_ = StringUtil.cutRight(StringUtil.cutLeft(resourcePrefix, "/"), "/");
+		jarFile_ 		= new JarFile(jarFile);
+
+		String entryPrefix = resourcePrefix_ + '/';
+		Enumeration<JarEntry> entries = jarFile_.entries();
+		while (entries.hasMoreElements())
+		{
+			JarEntry entry = entries.nextElement();
+			String name = entry.getName();
+			if (!entry.isDirectory() && name.startsWith(entryPrefix))
+				entries_.put(name.substring(resourcePrefix_.length()), entry);
+		}
+	}
+
+
+	/**
+	 * Returns a JarAsset if the jar contains an entry for the path.
+	 */
+	@Override protected Asset find(Path relativePath) throws Exception
+	{
+		JarEntry entry = entries_.get(relativePath.toString());
+		return entry != null ? new JarAsset(jarFile_, entry) : null;
+	}
+
+
+	/**
+	 * Returns the number of indexed entries.
+	 */
+	public int size()
+	{
+		return entries_.size();
+	}
+
+
+	/**
+	 * Adds the paths of all indexed entries.
+	 */
+	@Override public void collectAssetPaths(List<String> paths)
+	{
+		Path relativePath = getRelativePath();
+		for (String name : entries_.keySet())
+			paths.add(relativePath.add(name).toString());
+	}
+	
+	
+	/**
+	 * Closes the jar file.
+	 */
+	@Override public void close()
+	{
+		try
+		{
+			jarFile_.close();
+		}
+		catch (IOException e)
+		{
+			Logs.ASSET.warn("cannot close " + jarFile_.getName(), e);
+		}
+	}
+
+
+	/**
+	 * Returns a debug string.
+	 */
+	@Override protected String getInfoParam()
+	{
+		return "jar:" + jarFile_.getName() + "!/" + resourcePrefix_;
+	}
+
+
+	private final String resourcePrefix_;
+	private final JarFile jarFile_;
+	private final HashMap<String,JarEntry> entries_ = new HashMap<>();
+}
@@ -22,7 +22,10 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import org.civilian.util.ArrayUtil;
@@ -91,6 +94,7 @@ class ArchiveProtocol extends Protocol
 
 	private void scan(ScanContext context, JarFile jarFile, String rootEntryPath) throws IOException
 	{
+		ArrayList<String> classNames = new ArrayList<>();
 		for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) 
 		{
 			JarEntry entry = entries.nextElement();
@@ -98,9 +102,53 @@ class ArchiveProtocol extends Protocol
 			if (name.startsWith(rootEntryPath) && name.endsWith(".class"))
 			{
 				String className = name.substring(0, name.length() - 6).replace('/', '.');
-				context.result.scanned(className);
+				if (context.pool != null)
+					classNames.add(className);
+				else
+					context.result.scanned(className);
 			}
 		}
+		if (!classNames.isEmpty())
+			context.pool.invoke(new EntriesTask(context, classNames));
+	}
+	
+	
+	/**
+	 * Passes a range of class names to the scan listener, splitting
+	 * the range into subtasks if it is large. 
+	 */
+	@SuppressWarnings("serial")
+	private static class EntriesTask extends RecursiveAction
+	{
+		private static final int THRESHOLD = 64;
+		
+		
+		public EntriesTask(ScanContext context, List<String> classNames)
+		{
+			context_	= context;
+			classNames_	= classNames;
+		}
+		
+		
+		@Override protected void compute()
+		{
+			int size = classNames_.size();
+			if (size <= THRESHOLD)
+			{
+				for (String className : classNames_)
+					context_.result.scanned(className);
+			}
+			else
+			{
+				int mid = size / 2;
+				invokeAll(new EntriesTask(context_, classNames_.subList(0, mid)),
+					new EntriesTask(context_, classNames_.subList(mid, size)));
+			}
+		}
+		
+		
+		private final ScanContext context_;
+		private final List<String> classNames_;
 	}
 	
 	
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.internal.classpath;
+
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+
+
+/**
+ * ClassHeader contains the access flags, the name and the superclass name
+ * of a class, read from the header of a class file.
+ * This allows to inspect a class without loading the class.
+ * Class names are returned in internal form, e.g. "java/lang/Object".
+ */
+public class ClassHeader
+{
+	private static final int MAGIC = 0xCAFEBABE;
+
+
+	/**
+	 * Reads the header of the class file for a class from the ClassLoader.
+	 * @param internalName the class name in internal form
+	 * @return the header or null if the class file was not found
+	 */
+	public static ClassHeader read(ClassLoader classLoader, String internalName) throws IOException
+	{
+		InputStream in = classLoader.getResourceAsStream(internalName + ".class");
+		if (in == null)
+			return null;
+		try
+		{
+			return read(in);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Reads the header from a class file stream.
+	 * Only the constant pool and the following class info is read.
+	 */
+	public static ClassHeader read(InputStream stream) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 2048));
+		if (in.readInt() != MAGIC)
+			throw new IOException("not a class file");
+		in.readUnsignedShort(); // minor version
+		in.readUnsignedShort(); // major version
+
+		int count 		= in.readUnsignedShort();
+		String[] utf8 	= new String[count];
+		int[] classes	= new int[count];
+		for (int i=1; i<count; i++)
+		{
+			int tag = in.readUnsignedByte();
+			switch(tag)
+			{
+				case 1: // Utf8
+					utf8[i] = in.readUTF();
+					break;
+				case 7: // Class
+					classes[i] = in.readUnsignedShort();
+					break;
+				case 8:  // String
+				case 16: // MethodType
+				case 19: // Module
+				case 20: // Package
+					skip(in, 2);
+					break;
+				case 15: // MethodHandle
+					skip(in, 3);
+					break;
+				case 3:  // Integer
+				case 4:  // Float
+				case 9:  // Fieldref
+				case 10: // Methodref
+				case 11: // InterfaceMethodref
+				case 12: // NameAndType
+				case 17: // Dynamic
+				case 18: // InvokeDynamic
+					skip(in, 4);
+					break;
+				case 5: // Long
+				case 6: // Double
+					skip(in, 8);
+					i++; // takes two entries
+					break;
+				default:
+					throw new IOException("invalid constant pool tag " + tag);
+			}
+		}
+
+		int access 		= in.readUnsignedShort();
+		String name		= getClassName(utf8, classes, in.readUnsignedShort());
+		String superName= getClassName(utf8, classes, in.readUnsignedShort());
+		return new ClassHeader(access, name, superName);
+	}
+
+
+	private static String getClassName(String[] utf8, int[] classes, int index) throws IOException
+	{
+		if (index == 0)
+			return null;
+		if ((index >= classes.length) || (classes[index] == 0))
+			throw new IOException("invalid class index " + index);
+		return utf8[classes[index]];
+	}
+
+
+	private static void skip(DataInputStream in, int n) throws IOException
+	{
+		while (n > 0)
+		{
+			int skipped = in.skipBytes(n);
+			if (skipped <= 0)
+				throw new IOException("unexpected end of class file");
+			n -= skipped;
+		}
+	}
+
+
+	private ClassHeader(int access, String name, String superName)
+	{
+		access_ 	= access;
+		name_		= name;
+		superName_	= superName;
+	}
+
+
+	/**
+	 * Returns the access flags of the class.
+	 */
+	public int getAccess()
+	{
+		return access_;
+	}
+
+
+	/**
+	 * Returns if the class is abstract or an interface.
+	 */
+	public boolean isAbstract()
+	{
+		return (access_ & (Modifier.ABSTRACT | Modifier.INTERFACE)) != 0;
+	}
+
+
+	/**
+	 * Returns the class name in internal form.
+	 */
+	public String getName()
+	{
+		return name_;
+	}
+
+
+	/**
+	 * Returns the name of the superclass in internal form
+	 * or null if the class is java.lang.Object.
+	 */
+	public String getSuperName()
+	{
+		return superName_;
+	}
+
+
+	@Override public String toString()
+	{
+		return name_ + " extends " + superName_;
+	}
+
+
+	private final int access_;
+	private final String name_;
+	private final String superName_;
+}
@@ -20,6 +20,7 @@ import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.Enumeration;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import org.civilian.util.Check;
 
 
@@ -42,6 +43,23 @@ public class ClassPathScan
 	}
 
 	
+	/**
+	 * Sets if directories and archives are scanned in parallel
+	 * using a fork/join pool. In this case the ScanListener
+	 * passed to {@link #run(ScanListener)} must be thread-safe.
+	 */
+	public void setParallel(boolean parallel)
+	{
+		parallel_ = parallel;
+	}
+	
+	
+	public boolean isParallel()
+	{
+		return parallel_;
+	}
+	
+	
 	public Set<String> collect() throws Exception
 	{
 		return collect((ClassFilter)null);
@@ -58,13 +76,22 @@ public class ClassPathScan
 	
 	public <R extends ScanListener> R run(R result) throws Exception
 	{
-		for (String rootPackage : rootPackages_)
+		ForkJoinPool pool = parallel_ ? new ForkJoinPool() : null;
+		try
+		{
+			for (String rootPackage : rootPackages_)
+			{
+				ScanContext context = new ScanContext(result, rootPackage, pool);
+				
+				Enumeration<URL> rootUrls = classLoader_.getResources(context.rootPath);
+				while (rootUrls.hasMoreElements())
+					run(context, rootUrls.nextElement());
+			}
+		}
+		finally
 		{
-			ScanContext context = new ScanContext(result, rootPackage);
-			
-			Enumeration<URL> rootUrls = classLoader_.getResources(context.rootPath);
-			while (rootUrls.hasMoreElements())
-				run(context, rootUrls.nextElement());
+			if (pool != null)
+				pool.shutdown();
 		}
 		
 		return result;
@@ -141,6 +168,7 @@ public class ClassPathScan
 	private ClassLoader classLoader_;
 	private String[] rootPackages_;
 	private boolean detectEquinox_ = true;
+	private boolean parallel_;
 	private static Method equinoxResolveMethod_;
 	private static Protocol[] protocols_ = { ArchiveProtocol.INSTANCE, FileProtocol.INSTANCE, VfsProtocol.INSTANCE };  
 }
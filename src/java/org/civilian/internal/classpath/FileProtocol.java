@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.concurrent.RecursiveAction;
 import org.civilian.util.IoUtil;
 import org.civilian.util.StringUtil;
 
@@ -42,7 +44,10 @@ class FileProtocol extends Protocol
 			throw new IOException("not a directory '" + baseDir.getAbsolutePath() + "'");
 		
 		Norm norm = new Norm(context, baseDir);
-		scan(context, norm, toFile(rootUrl).getAbsoluteFile());
+		if (context.pool != null)
+			context.pool.invoke(new DirTask(context, norm, baseDir));
+		else
+			scan(context, norm, baseDir);
 	}
 
 
@@ -54,11 +59,53 @@ class FileProtocol extends Protocol
 				scan(context, norm, f);
 		}
 		else
+			scanFile(context, norm, file);
+	}
+	
+	
+	private static void scanFile(ScanContext context, Norm norm, File file)
+	{
+		String className = norm.getClassName(file);
+		if (className != null)
+			context.result.scanned(className);
+	}
+	
+	
+	/**
+	 * Scans the files of a directory and forks tasks for its subdirectories.
+	 */
+	@SuppressWarnings("serial")
+	private static class DirTask extends RecursiveAction
+	{
+		public DirTask(ScanContext context, Norm norm, File dir)
 		{
-			String className = norm.getClassName(file);
-			if (className != null)
-				context.result.scanned(className);
+			context_	= context;
+			norm_		= norm;
+			dir_		= dir;
 		}
+		
+		
+		@Override protected void compute()
+		{
+			File[] files = dir_.listFiles();
+			if (files == null)
+				return;
+			
+			ArrayList<DirTask> subTasks = new ArrayList<>();
+			for (File file : files)
+			{
+				if (file.isDirectory())
+					subTasks.add(new DirTask(context_, norm_, file));
+				else
+					scanFile(context_, norm_, file);
+			}
+			invokeAll(subTasks);
+		}
+		
+		
+		private final ScanContext context_;
+		private final Norm norm_;
+		private final File dir_;
 	}
 	
 
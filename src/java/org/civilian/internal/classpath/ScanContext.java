@@ -16,21 +16,27 @@
 package org.civilian.internal.classpath;
 
 
+import java.util.concurrent.ForkJoinPool;
 import org.civilian.util.Check;
 import org.civilian.util.StringUtil;
 
 
 class ScanContext
 {
-	public ScanContext(ScanListener result, String rootPackage)
+	public ScanContext(ScanListener result, String rootPackage, ForkJoinPool pool)
 	{
 		this.rootPackage = rootPackage;
 		this.rootPath = StringUtil.haveRight(rootPackage.replace('.', '/'), "/");
 		this.result = Check.notNull(result, "result");
+		this.pool = pool;
 	}
 	
 	
 	public ScanListener result;
+	/**
+	 * The pool to scan in parallel, or null if the scan is sequential.
+	 */
+	public final ForkJoinPool pool;
 	public final String rootPackage;
 	public final String rootPath;
 }
@@ -16,6 +16,11 @@
 package org.civilian.internal.classpath;
 
 
+/**
+ * ScanListener receives the classes found by a {@link ClassPathScan}.
+ * If the scan is {@link ClassPathScan#setParallel(boolean) parallel}, 
+ * the listener is called concurrently and must be thread-safe.
+ */
 public interface ScanListener
 {
 	public void scanned(String className);
@@ -16,8 +16,9 @@
 package org.civilian.internal.classpath;
 
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class SimpleScanResult implements ScanListener
@@ -41,6 +42,6 @@ public class SimpleScanResult implements ScanListener
 	}
 	
 	
-	private HashSet<String> classes_ = new HashSet<>();
+	private Set<String> classes_ = Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
 	private ClassFilter filter_;
 }
@@ -19,6 +19,10 @@ package org.civilian.internal.controller.arg.misc;
 import java.beans.BeanInfo;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -29,11 +33,33 @@ import org.civilian.controller.MethodArgFactory;
 import org.civilian.controller.MethodArg;
 
 
+/**
+ * BeanParamArg creates a bean and injects request values into its properties. 
+ * The bean constructor and the setter methods and fields are resolved 
+ * once and invoked via MethodHandles.
+ */
 public class BeanParamArg extends MethodArg
 {
+	private static final MethodType SETTER_TYPE 		= MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType CONSTRUCTOR_TYPE 	= MethodType.methodType(Object.class);
+	private static final MethodHandle FIELD_SET;
+	static
+	{
+		try
+		{
+			FIELD_SET = MethodHandles.lookup().findVirtual(Field.class, "set", SETTER_TYPE);
+		}
+		catch (Exception e)
+		{
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	
 	public BeanParamArg(MethodArgFactory factory, Class<?> beanClass) throws Exception
 	{
-		beanClass_ = beanClass;
+		beanClass_ 	= beanClass;
+		constructor_= getConstructor(beanClass);
 
 		Init init = new Init(factory);
 		
@@ -54,9 +80,28 @@ public class BeanParamArg extends MethodArg
 	}
 	
 	
+	/**
+	 * Returns a MethodHandle for the default constructor of the bean class,
+	 * or null if not available.
+	 */
+	private static MethodHandle getConstructor(Class<?> beanClass)
+	{
+		try
+		{
+			Constructor<?> constructor = beanClass.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+		}
+		catch (Exception e)
+		{
+			return null;
+		}
+	}
+	
+	
 	@Override public Object getValue(Request request) throws Exception
 	{
-		Object bean = beanClass_.newInstance();
+		Object bean = createBean();
 		
 		for (Setter setter : setters_)
 			setter.injectParam(request, bean);
@@ -64,12 +109,37 @@ public class BeanParamArg extends MethodArg
 		return bean;
 	}
 	
+	
+	private Object createBean() throws Exception
+	{
+		if (constructor_ == null)
+			return beanClass_.newInstance(); // will throw a meaningful exception
+		try
+		{
+			return constructor_.invokeExact();
+		}
+		catch (Exception | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable t)
+		{
+			throw new IllegalStateException("unexpected throwable", t);
+		}
+	}
+	
 
-	private static abstract class Setter
+	/**
+	 * Setter injects a value into a bean, via a MethodHandle
+	 * of type (Object bean, Object value)void.
+	 */
+	private static class Setter
 	{
-		public Setter(MethodArg arg)
+		public Setter(MethodArg arg, MethodHandle handle, String target)
 		{
-			arg_ = arg;
+			arg_ 	= arg;
+			handle_	= handle;
+			target_ = target;
 		}
 		
 		
@@ -78,74 +148,28 @@ public class BeanParamArg extends MethodArg
 			Object value = arg_.getValue(request);
 			try
 			{
-				inject(value, bean);
+				handle_.invokeExact(bean, value);
+			}
+			catch(Error e)
+			{
+				throw e;
 			}
-			catch(Exception e)
+			catch(Throwable e)
 			{
 				throw new IllegalArgumentException("error when injecting value " + value + " from " + arg_ + " into " + this, e);
 			}
 		}
 
 		
-		public abstract void inject(Object value, Object bean) throws Exception;
-		
-		
-		@Override public abstract String toString();
-		
-
-		private MethodArg arg_;
-	}
-	
-
-	private static class MethodSetter extends Setter
-	{
-		public MethodSetter(MethodArg arg, Method method)
-		{
-			super(arg);
-			method_ = method;
-		}
-		
-
-		@Override public void inject(Object value, Object bean) throws Exception
-		{
-			method_.invoke(bean, value);
-		}
-		
-		
 		@Override public String toString()
 		{
-			return method_.toString();
-		}
-		
-		
-		private Method method_;
-	}
-	
-	
-	private static class FieldSetter extends Setter
-	{
-		public FieldSetter(MethodArg arg, Field field)
-		{
-			super(arg);
-			field_ = field;
-			if (!Modifier.isPublic(field_.getModifiers()))
-				field_.setAccessible(true);
+			return target_;
 		}
 		
 
-		@Override public void inject(Object value, Object bean) throws Exception
-		{
-			field_.set(bean, value);
-		}
-		
-		
-		@Override public String toString()
-		{
-			return field_.toString();
-		}
-		
-		
-		private Field field_;
+		private final MethodArg arg_;
+		private final MethodHandle handle_;
+		private final String target_;
 	}
 
 	
@@ -163,35 +187,63 @@ public class BeanParamArg extends MethodArg
 		}
 
 		
-		public void addSetter(Method method, String propertyName)
+		public void addSetter(Method method, String propertyName) throws IllegalAccessException
 		{
 			if (method != null)
 			{
-				MethodArg arg = factory_.createSetterMethodArg(method, propertyName, false);
-				if (arg != null)
-					add(new MethodSetter(arg, method), method.toString());
+				String key = method.toString();
+				if (!done_.contains(key))
+				{
+					MethodArg arg = factory_.createSetterMethodArg(method, propertyName, false);
+					if (arg != null)
+						add(new Setter(arg, createHandle(method), key), key);
+				}
 			}
 		}
 		
 		
-		public void addSetter(Field field)
+		public void addSetter(Field field) throws IllegalAccessException
 		{
 			if (field != null)
 			{
-				MethodArg arg = factory_.createFieldArg(field, false);
-				if (arg != null)
-					add(new FieldSetter(arg, field), field.toString());
+				String key = field.toString();
+				if (!done_.contains(key))
+				{
+					MethodArg arg = factory_.createFieldArg(field, false);
+					if (arg != null)
+						add(new Setter(arg, createHandle(field), key), key);
+				}
 			}
 		}
+		
+		
+		private MethodHandle createHandle(Method method) throws IllegalAccessException
+		{
+			method.setAccessible(true);
+			return MethodHandles.lookup().unreflect(method).asType(SETTER_TYPE);
+		}
 
 
-		private void add(Setter setter, String key)
+		private MethodHandle createHandle(Field field)
 		{
-			if (!done_.contains(key))
+			if (!Modifier.isPublic(field.getModifiers()))
+				field.setAccessible(true);
+			try
 			{
-				done_.add(key);
-				setters_.add(setter);
+				return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
 			}
+			catch (IllegalAccessException e)
+			{
+				// e.g. a final field: use Field.set
+				return FIELD_SET.bindTo(field);
+			}
+		}
+
+
+		private void add(Setter setter, String key)
+		{
+			done_.add(key);
+			setters_.add(setter);
 		}
 		
 		
@@ -202,5 +254,6 @@ public class BeanParamArg extends MethodArg
 	
 	
 	private Class<?> beanClass_;
+	private MethodHandle constructor_;
 	private Setter[] setters_;
 }
@@ -61,6 +61,16 @@ public class InterceptedOutputStream extends FilterOutputStream implements Inter
 	}
 	
 	
+	/**
+	 * Passes the bytes in one call to the intercepted stream.
+	 * (FilterOutputStream would write them byte by byte). 
+	 */
+	@Override public void write(byte[] b, int off, int len) throws IOException
+	{
+		out.write(b, off, len);
+	}
+	
+	
 	@Override public void reset()
 	{
 		try
@@ -3,7 +3,6 @@ package org.civilian.internal.intercept;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import org.civilian.response.ResponseStreamInterceptor;
 import org.civilian.response.ResponseWriter;
@@ -12,15 +11,6 @@ import org.civilian.response.ResponseWriterInterceptor;
 
 public class InterceptedResponseWriter extends ResponseWriter implements InterceptedOutput
 {
-	private static Writer createWriter(OutputStream originalStream, 
-		ResponseStreamInterceptor streamInterceptor,
-		String contentEncoding) throws IOException
-	{
-		OutputStream out = RespStreamInterceptorChain.intercept(originalStream, streamInterceptor);
-		return new OutputStreamWriter(out, contentEncoding);
-	}
-	
-	
 	public InterceptedResponseWriter(Writer originalWriter, 
 		ResponseWriterInterceptor writerInterceptor) 
 		throws IOException
@@ -37,7 +27,7 @@ public class InterceptedResponseWriter extends ResponseWriter implements Interce
 		ResponseWriterInterceptor writerInterceptor,
 		String contentEncoding) throws IOException
 	{
-		super(createWriter(originalStream, streamInterceptor, contentEncoding));
+		super(RespStreamInterceptorChain.intercept(originalStream, streamInterceptor), contentEncoding);
 		writerInterceptor_ 	= writerInterceptor;
 		originalStream_		= originalStream;
 		streamInterceptor_	= streamInterceptor;
@@ -57,8 +47,13 @@ public class InterceptedResponseWriter extends ResponseWriter implements Interce
 		else
 		{
 			if (!fromCtor)
-				this.lock = this.out = createWriter(originalStream_, streamInterceptor_, contentEncoding_);
-			this.out = RespWriterInterceptorChain.intercept(this.out, writerInterceptor_); 
+				this.lock = this.out = initStreamOutput(RespStreamInterceptorChain.intercept(originalStream_, streamInterceptor_), contentEncoding_);
+			Writer streamWriter = this.out;
+			this.out = RespWriterInterceptorChain.intercept(streamWriter, writerInterceptor_);
+			
+			// pre-encoded text can only be written to the stream if it does not need to pass a writer interceptor 
+			if (this.out != streamWriter)
+				initStreamOutput(null, contentEncoding_);
 		}
 	}
 	
@@ -49,7 +49,15 @@ public class AssetDispatch extends Processor
 			throw new IllegalArgumentException("AssetService is empty");
 
 		assetService_	= assetService;
-		info_ 			= assetService.getInfo();
+	}
+	
+	
+	/**
+	 * Returns the info of the AssetService. 
+	 */
+	@Override public String getInfo()
+	{
+		return assetService_.getInfo();
 	}
 	
 
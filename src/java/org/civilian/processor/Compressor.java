@@ -18,20 +18,28 @@ package org.civilian.processor;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
 import org.civilian.Processor;
 import org.civilian.Request;
 import org.civilian.Response;
 import org.civilian.content.CompressionScheme;
+import org.civilian.content.ContentType;
 import org.civilian.internal.Logs;
 import org.civilian.response.ResponseHeaders;
 import org.civilian.response.ResponseStreamInterceptor;
+import org.civilian.util.Check;
 
 
 /**
  * Compressor is a processor which compresses response content.
  * Put it into the processor chain before any processors which will write response content.
  * Compressor uses the "Accept-Encoding" header to determine the compression scheme.
- * It can use all schemes which are available via the {@link CompressionScheme} class.
+ * It can use all schemes which are available via the {@link CompressionScheme} class.<br>
+ * Compression only pays off for responses of a certain size and a compressible
+ * content type. Therefore a {@link #setMinSize(int) minimum size} and lists of 
+ * {@link #setAllowedTypes(ContentType...) allowed} and {@link #setDeniedTypes(ContentType...) denied}
+ * content types can be configured. By default types of already compressed content
+ * like PNG or JPEG images are not compressed.
  */
 public class Compressor extends Processor
 {
@@ -44,6 +52,98 @@ public class Compressor extends Processor
 	public static final String NO_COMPRESSION = "compressor-none";
 	
 	
+	/**
+	 * The content types which are not compressed by default,
+	 * since their content is already compressed.
+	 */
+	public static final ContentType[] DEFAULT_DENIED_TYPES = 
+	{
+		ContentType.IMAGE_GIF,
+		ContentType.IMAGE_JPEG,
+		ContentType.IMAGE_PNG,
+		new ContentType("image/webp"),
+		new ContentType("audio/*"),
+		new ContentType("video/*"),
+		new ContentType("font/woff"),
+		new ContentType("font/woff2"),
+		new ContentType("application/zip"),
+		new ContentType("application/gzip"),
+		new ContentType("application/x-gzip"),
+	};
+	
+	
+	/**
+	 * Sets the minimum size of response content which is compressed.
+	 * If the response has a known content length, it is compared with the
+	 * minimum size. Else the first bytes of the content are buffered until 
+	 * either the minimum size is reached and compression starts, or the 
+	 * content is closed or flushed and the content is sent uncompressed.
+	 * The default is 0, i.e. all responses are compressed.
+	 */
+	public void setMinSize(int minSize)
+	{
+		Check.greaterEquals(minSize, 0, "minSize");
+		minSize_ = minSize;
+	}
+	
+	
+	/**
+	 * Returns the minimum size of response content which is compressed.
+	 */
+	public int getMinSize()
+	{
+		return minSize_;
+	}
+	
+	
+	/**
+	 * Sets the content types which are compressed. Wildcards like "text/*" 
+	 * are allowed. If the list is empty (the default), all types which are not
+	 * denied are compressed. Responses without a content type are only compressed
+	 * if the list is empty.  
+	 */
+	public void setAllowedTypes(ContentType... types)
+	{
+		allowedTypes_ = Check.notNull(types, "types").clone();
+	}
+	
+	
+	/**
+	 * Sets the content types which are never compressed. 
+	 * Wildcards like "video/*" are allowed.
+	 * @see #DEFAULT_DENIED_TYPES
+	 */
+	public void setDeniedTypes(ContentType... types)
+	{
+		deniedTypes_ = Check.notNull(types, "types").clone();
+	}
+	
+	
+	/**
+	 * Returns if content of the given type may be compressed.
+	 * @param contentType the content type or null, if not known
+	 */
+	public boolean isCompressible(ContentType contentType)
+	{
+		if (contentType == null)
+			return allowedTypes_.length == 0;
+		
+		for (ContentType denied : deniedTypes_)
+		{
+			if (denied.matches(contentType))
+				return false;
+		}
+		if (allowedTypes_.length == 0)
+			return true;
+		for (ContentType allowed : allowedTypes_)
+		{
+			if (allowed.matches(contentType))
+				return true;
+		}
+		return false;
+	}
+	
+	
 	@Override public boolean process(Request request, ProcessorChain chain) throws Exception
 	{
 		String accepted = request.getHeaders().get("Accept-Encoding");
@@ -73,8 +173,76 @@ public class Compressor extends Processor
 	}
 	
 	
+	/**
+	 * Returns the number of compressed responses.
+	 */
+	public long getCompressedCount()
+	{
+		return compressed_.get();
+	}
 	
-	private static class Interceptor implements ResponseStreamInterceptor
+	
+	/**
+	 * Returns the number of responses which were not compressed 
+	 * since their content was smaller than the minimum size.
+	 */
+	public long getSkippedSmallCount()
+	{
+		return skippedSmall_.get();
+	}
+	
+	
+	/**
+	 * Returns the number of responses which were not compressed 
+	 * since their content was flushed before the minimum size was reached.
+	 */
+	public long getSkippedFlushCount()
+	{
+		return skippedFlush_.get();
+	}
+	
+	
+	/**
+	 * Returns the number of responses which were not compressed 
+	 * because of their content type.
+	 */
+	public long getSkippedTypeCount()
+	{
+		return skippedType_.get();
+	}
+	
+	
+	/**
+	 * Returns the compression settings and counters.
+	 */
+	@Override public String getInfo()
+	{
+		return "minSize=" + minSize_ +
+			", compressed=" + compressed_.get() +
+			", skippedSmall=" + skippedSmall_.get() +
+			", skippedFlush=" + skippedFlush_.get() +
+			", skippedType=" + skippedType_.get();
+	}
+	
+	
+	private static long getContentLength(ResponseHeaders headers)
+	{
+		String s = headers.get("Content-Length");
+		if (s != null)
+		{
+			try
+			{
+				return Long.parseLong(s.trim());
+			}
+			catch (NumberFormatException e)
+			{
+			}
+		}
+		return -1;
+	}
+	
+	
+	private class Interceptor implements ResponseStreamInterceptor
 	{
 		public Interceptor(CompressionScheme scheme)
 		{
@@ -94,8 +262,39 @@ public class Compressor extends Processor
 			if (encoding != null)
 				return null;
 
+			if (!isCompressible(response.getContentType()))
+			{
+				skippedType_.incrementAndGet();
+				return null;
+			}
+			
+			response_ = response;
+			long length = getContentLength(headers);
+			if (length >= 0)
+			{
+				if (length < minSize_)
+				{
+					skippedSmall_.incrementAndGet();
+					return null;
+				}
+				startCompression();
+			}
+			else if (minSize_ == 0)
+				startCompression();
+			// else: the decision is made by the DeferredStream
+			
+			return this;
+		}
+		
+		
+		private void startCompression()
+		{
+			compressed_.incrementAndGet();
+			compress_ = Boolean.TRUE;
+			ResponseHeaders headers = response_.getHeaders();
+			
 			// clear content length
-			response.setContentLength(-1);
+			response_.setContentLength(-1);
 
 			// set content-encoding
 			headers.set("Content-Encoding", scheme_.getName());
@@ -103,19 +302,152 @@ public class Compressor extends Processor
 			// enhance etag if set
 			String etag = headers.get("Etag");
 			if (etag != null)
-				headers.set("Etag", etag + '-' + scheme_.getName());
-			
-			return this;
+			{
+				// keep a quoted etag well-formed
+				etag = etag.endsWith("\"") ?
+					etag.substring(0, etag.length() - 1) + '-' + scheme_.getName() + '"' :
+					etag + '-' + scheme_.getName();
+				headers.set("Etag", etag);
+			}
 		}
 
 
 		@Override public OutputStream intercept(OutputStream out) throws IOException
 		{
-			return scheme_.wrap(out);
+			if (compress_ == null)
+				return new DeferredStream(out);
+			else
+				return compress_.booleanValue() ? scheme_.wrap(out) : out;
 		}
 		
 		
-		private CompressionScheme scheme_;
+		/**
+		 * DeferredStream buffers content until it can decide
+		 * if the content should be compressed.
+		 */
+		private class DeferredStream extends OutputStream
+		{
+			public DeferredStream(OutputStream out)
+			{
+				target_ = out;
+				buffer_	= new byte[minSize_];
+			}
+
+
+			@Override public void write(int b) throws IOException
+			{
+				if (out_ == null)
+				{
+					if (buffer_ == null)
+						continueFlushed();
+					else if (count_ + 1 < buffer_.length)
+					{
+						buffer_[count_++] = (byte)b;
+						return;
+					}
+					else
+						decide(true);
+				}
+				out_.write(b);
+			}
+			
+			
+			@Override public void write(byte[] b, int off, int len) throws IOException
+			{
+				if (out_ == null)
+				{
+					if (buffer_ == null)
+						continueFlushed();
+					else if (count_ + len < buffer_.length)
+					{
+						System.arraycopy(b, off, buffer_, count_, len);
+						count_ += len;
+						return;
+					}
+					else
+						decide(true);
+				}
+				out_.write(b, off, len);
+			}
+			
+			
+			/**
+			 * A flush before the minimum size was reached would commit the response.
+			 * Therefore the content is sent uncompressed. Since the stream is also
+			 * flushed when it is closed, the response is only counted as skipped
+			 * because of the flush if more content is written.
+			 */
+			@Override public void flush() throws IOException
+			{
+				if (out_ == null)
+				{
+					if (buffer_ != null)
+						decide(false);
+					target_.flush();
+					out_ = null;
+				}
+				else
+					out_.flush();
+			}
+			
+			
+			@Override public void close() throws IOException
+			{
+				if (out_ == null)
+				{
+					skippedSmall_.incrementAndGet();
+					if (buffer_ != null)
+						decide(false);
+					else
+						out_ = target_;
+				}
+				out_.close();
+			}
+			
+			
+			private void continueFlushed()
+			{
+				skippedFlush_.incrementAndGet();
+				out_ = target_;
+			}
+			
+			
+			private void decide(boolean compress) throws IOException
+			{
+				if (compress)
+				{
+					startCompression();
+					out_ = scheme_.wrap(target_);
+				}
+				else
+				{
+					compress_ = Boolean.FALSE;
+					out_ = target_;
+				}
+				if (count_ > 0)
+					out_.write(buffer_, 0, count_);
+				buffer_ = null;
+			}
+			
+			
+			private final OutputStream target_;
+			private OutputStream out_;
+			private byte[] buffer_;
+			private int count_;
+		}
+		
+		
+		private final CompressionScheme scheme_;
+		private Response response_;
+		private Boolean compress_;
 	}
+	
+	
+	private volatile int minSize_;
+	private volatile ContentType[] allowedTypes_ = new ContentType[0];
+	private volatile ContentType[] deniedTypes_ = DEFAULT_DENIED_TYPES.clone();
+	private final AtomicLong compressed_ = new AtomicLong();
+	private final AtomicLong skippedSmall_ = new AtomicLong();
+	private final AtomicLong skippedFlush_ = new AtomicLong();
+	private final AtomicLong skippedType_ = new AtomicLong();
 }
-
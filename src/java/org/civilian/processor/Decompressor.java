@@ -30,6 +30,8 @@ import org.civilian.request.RequestStreamInterceptor;
  * Put it into the processor chain before any processors which want to read the content.
  * Decompressor uses the Content-encoding header to determine the compression scheme.
  * It recognizes and treats all schemes which are available via the {@link CompressionScheme} class.
+ * The "gzip" and "deflate" schemes take their Inflaters from a pool and return them 
+ * when the request content was read completely.
  */
 public class Decompressor extends Processor 
 {
@@ -16,6 +16,7 @@
 package org.civilian.processor;
 
 
+import org.civilian.Controller;
 import org.civilian.Processor;
 import org.civilian.Request;
 import org.civilian.Resource;
@@ -50,17 +51,21 @@ public class ResourceDispatch extends Processor
 	@Override public boolean process(Request request, ProcessorChain chain) throws Exception
 	{
 		// find the matching resource: we only handle complete matches
-		Resource.Match match = rootResource_.match(request.getRelativePath().toString());
+		Resource.MatchContext match = matchContext_.get();
+		rootResource_.match(request.getRelativePath().toString(), match);
 		if (match.completeMatch)
 		{
-			request.setResource(match.resource);
-			request.setPathParams(match.pathParams);
+			Resource resource = match.resource;
+			request.setResource(resource);
+			request.setPathParams(match.takePathParams());
 			
-			ControllerType ctrlType	= match.resource.getControllerType();
+			ControllerType ctrlType	= resource.getControllerType();
 			if (ctrlType != null)
 			{
 				// resource is associated with a controller
-				ctrlType.createController().process(request);
+				Controller controller = ctrlType.createController();
+				controller.process(request);
+				ctrlType.releaseController(controller);
 				return true; // we handled the request
 			}
 		}
@@ -71,4 +76,11 @@ public class ResourceDispatch extends Processor
 
 
 	private Resource rootResource_;
+	private final ThreadLocal<Resource.MatchContext> matchContext_ = new ThreadLocal<Resource.MatchContext>()
+	{
+		@Override protected Resource.MatchContext initialValue()
+		{
+			return new Resource.MatchContext();
+		}
+	};
 }
@@ -36,8 +36,20 @@ public class PathScanner
 	 */
 	public PathScanner(String path)
 	{
-		path_ 	= path != null ? path : "";
-		end_	= path_.length();
+		init(path);
+	}
+	
+	
+	/**
+	 * Reinitializes the PathScanner for a new path string.
+	 * This allows to reuse a PathScanner for multiple paths.
+	 * @see #PathScanner(String)
+	 */
+	public void init(String path)
+	{
+		path_ 			= path != null ? path : "";
+		end_			= path_.length();
+		segmentStart_	= 0;
 		
 		// ignore trailing extension
 		int lastSlashPos	= path_.lastIndexOf('/');
@@ -109,6 +121,19 @@ public class PathScanner
 	}
 	
 	
+	/**
+	 * Returns the hash code of the current segment. The result equals
+	 * getSegment().hashCode() but does not create a String.
+	 */
+	public int getSegmentHash()
+	{
+		int h = 0;
+		for (int i=segmentStart_; i<segmentEnd_; i++)
+			h = 31 * h + path_.charAt(i);
+		return h;
+	}
+	
+	
 	/**
 	 * Returns if the current segment equals the given segment. 
 	 */
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.resource;
+
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.civilian.util.Check;
+
+
+/**
+ * RouteParams is a read-only map of the path parameter values of a {@link Route}.
+ * The values are stored in a flat array, indexed by the position of the
+ * PathParam in the route. A null array element means that no value exists
+ * for the PathParam.
+ */
+public class RouteParams extends AbstractMap<PathParam<?>,Object>
+{
+	/**
+	 * A RouteParams object without any values.
+	 */
+	public static final RouteParams EMPTY = new RouteParams(Route.root(), new Object[0]);
+	
+	
+	/**
+	 * Creates a new RouteParams object.
+	 * @param route the route
+	 * @param values the values. The array is not copied and its length
+	 * 		must be &gt;= route.getPathParamCount().
+	 */
+	public RouteParams(Route route, Object[] values)
+	{
+		route_	= Check.notNull(route, "route");
+		values_	= Check.notNull(values, "values");
+		count_	= route.getPathParamCount();
+		if (values.length < count_)
+			throw new IllegalArgumentException("values.length " + values.length + " < " + count_);
+	}
+	
+	
+	/**
+	 * Returns the route.
+	 */
+	public Route getRoute()
+	{
+		return route_;
+	}
+	
+	
+	/**
+	 * Returns the value of the i-th PathParam of the route.
+	 */
+	public Object getValue(int index)
+	{
+		return index < count_ ? values_[index] : null;
+	}
+	
+	
+	@Override public Object get(Object key)
+	{
+		if (key instanceof PathParam)
+		{
+			int index = route_.indexOf((PathParam<?>)key);
+			if (index >= 0)
+				return values_[index];
+		}
+		return null;
+	}
+
+	
+	@Override public boolean containsKey(Object key)
+	{
+		return get(key) != null;
+	}
+	
+	
+	@Override public int size()
+	{
+		int size = 0;
+		for (int i=0; i<count_; i++)
+		{
+			if (values_[i] != null)
+				size++;
+		}
+		return size;
+	}
+
+	
+	@Override public Set<Map.Entry<PathParam<?>,Object>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<PathParam<?>,Object>>()
+		{
+			@Override public Iterator<Map.Entry<PathParam<?>,Object>> iterator()
+			{
+				return new It();
+			}
+
+			@Override public int size()
+			{
+				return RouteParams.this.size();
+			}
+		};
+	}
+	
+	
+	private class It implements Iterator<Map.Entry<PathParam<?>,Object>>
+	{
+		public It()
+		{
+			skip();
+		}
+		
+		
+		private void skip()
+		{
+			while ((next_ < count_) && (values_[next_] == null))
+				next_++;
+		}
+
+		
+		@Override public boolean hasNext()
+		{
+			return next_ < count_;
+		}
+
+		
+		@Override public Map.Entry<PathParam<?>,Object> next()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+			int index = next_++;
+			skip();
+			return new SimpleImmutableEntry<PathParam<?>,Object>(route_.getPathParam(index), values_[index]);
+		}
+
+		
+		@Override public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+		
+		
+		private int next_;
+	}
+	
+	
+	private final Route route_;
+	private final Object[] values_;
+	private final int count_;
+}
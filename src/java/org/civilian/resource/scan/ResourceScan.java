@@ -16,14 +16,20 @@
 package org.civilian.resource.scan;
 
 
+import java.io.IOException;
 import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import org.civilian.Application;
 import org.civilian.Controller;
 import org.civilian.Resource;
 import org.civilian.controller.ControllerNaming;
 import org.civilian.internal.classpath.ClassFilter;
+import org.civilian.internal.classpath.ClassHeader;
 import org.civilian.internal.classpath.ClassPathScan;
+import org.civilian.internal.classpath.ScanListener;
 import org.civilian.resource.PathParamMap;
 
 
@@ -31,7 +37,10 @@ import org.civilian.resource.PathParamMap;
  * ResourceScan scans the class path, collects all controller classes
  * of an application and creates a resource tree.
  * The resource tree determines which dynamic resources are known to the
- * application. 
+ * application.<br>
+ * By default the scan reads the class file headers of candidate classes 
+ * to detect controller classes without loading them, and scans the 
+ * classpath in parallel. Only controller classes are then loaded.
  * @see Application#generateResourceTree(org.civilian.controller.classloader.ReloadConfig)
  */
 public class ResourceScan
@@ -47,6 +56,16 @@ public class ResourceScan
 	}
 
 	
+	/**
+	 * Sets if class file headers should be read to detect controller classes.
+	 * If false, all candidate classes are loaded to check if they are controllers.
+	 */
+	public void setReadHeaders(boolean readHeaders)
+	{
+		readHeaders_ = readHeaders;
+	}
+	
+	
 	public Resource run() throws ScanException
 	{
 		return getInfo().toResource();
@@ -69,10 +88,17 @@ public class ResourceScan
 			log("scanning classes below " + rootPackage);
 		
 		ClassPathScan scan = new ClassPathScan(rootPackage);
+		CtrlClassFilter filter = new CtrlClassFilter(resFactory_.getNaming());
 		Set<String> candidateClasses;
 		try
 		{
-			candidateClasses = scan.collect(new CtrlClassFilter(resFactory_.getNaming()));
+			if (readHeaders_)
+			{
+				scan.setParallel(true);
+				candidateClasses = scan.run(new HeaderScanListener(filter)).getClasses();
+			}
+			else
+				candidateClasses = scan.collect(filter);
 		}
 		catch (Exception e)
 		{
@@ -82,7 +108,8 @@ public class ResourceScan
 		if (verbose)
 			log("found " + candidateClasses.size() + " potential resource classes");
 		
-		for (String c : candidateClasses)
+		// map in a defined order, independent of the scan order
+		for (String c : new TreeSet<>(candidateClasses))
 			scanClass(c);
 	}
 	
@@ -124,13 +151,102 @@ public class ResourceScan
 	}
 	
 	
+	/**
+	 * A ScanListener which reads the class file header of candidate classes
+	 * and only accepts classes which are not abstract and derived from Controller.
+	 * Classes whose superclass chain can't be read are accepted, to be
+	 * checked by {@link ResourceScan#scanClass(String)}. 
+	 */
+	private class HeaderScanListener implements ScanListener
+	{
+		public HeaderScanListener(ClassFilter filter)
+		{
+			filter_ = filter;
+		}
+		
+		
+		@Override public void scanned(String className)
+		{
+			if (filter_.accept(className) && !Boolean.FALSE.equals(isController(className.replace('.', '/'))))
+				classes_.add(className);
+		}
+		
+		
+		/**
+		 * @return true or false, or null if undecided
+		 */
+		private Boolean isController(String internalName)
+		{
+			ClassHeader header = readHeader(internalName);
+			if (header == null)
+				return null;
+			else if (header.isAbstract())
+				return Boolean.FALSE;
+			else
+				return extendsController(header.getSuperName());
+		}
+		
+		
+		/**
+		 * @return true or false, or null if undecided
+		 */
+		private Boolean extendsController(String internalName)
+		{
+			if (internalName == null)
+				return Boolean.FALSE;
+			if (CONTROLLER_NAME.equals(internalName))
+				return Boolean.TRUE;
+			if (internalName.startsWith("java/"))
+				return Boolean.FALSE;
+			
+			Boolean result = extendsController_.get(internalName);
+			if (result == null)
+			{
+				ClassHeader header = readHeader(internalName);
+				if (header == null)
+					return null;
+				result = extendsController(header.getSuperName());
+				if (result != null)
+					extendsController_.put(internalName, result);
+			}
+			return result;
+		}
+		
+		
+		private ClassHeader readHeader(String internalName)
+		{
+			try
+			{
+				return ClassHeader.read(classLoader_, internalName);
+			}
+			catch (IOException e)
+			{
+				return null;
+			}
+		}
+		
+		
+		public Set<String> getClasses()
+		{
+			return classes_;
+		}
+		
+		
+		private final ClassFilter filter_;
+		private final Set<String> classes_ = Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+		private final ConcurrentHashMap<String,Boolean> extendsController_ = new ConcurrentHashMap<>();
+	}
+	
+	
 	public static void log(String message)
 	{
 		System.out.println(message);
 	}
 		
 	
+	private static final String CONTROLLER_NAME = Controller.class.getName().replace('.', '/');
 	private ClassLoader classLoader_;
 	private ResourceFactory resFactory_;
+	private boolean readHeaders_ = true;
 	boolean verbose;
 }
@@ -43,6 +43,9 @@ public interface ResponseStreamInterceptor
 	 * for the first time. The intercept-method should allow to be called multiple
 	 * times. If {@link Response#resetBuffer()} is called, the previous OutputStream 
 	 * is discarded and replaced by a new stream. 
+	 * Response content is passed to the stream in blocks, therefore the stream should 
+	 * implement {@link OutputStream#write(byte[], int, int)} efficiently
+	 * (unlike java.io.FilterOutputStream which writes each byte separately).
 	 * @param out the OutputStream
 	 * @return an OutputStream which should be used to write response content.
 	 */
@@ -16,7 +16,12 @@
 package org.civilian.response;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Locale;
 import org.civilian.Request;
 import org.civilian.Response;
@@ -47,10 +52,19 @@ import org.civilian.util.TabWriter;
  * <li>it provides a {@link MsgBundle} which can be used to translate message ids into message texts.
  * <li>it can be associated with multiple {@link #addContext(Object) context} objects. The Response will add itself
  * 		as context object.  
+ * <li>if created for an OutputStream it can write {@link #print(String, byte[], Charset) pre-encoded} text
+ * 		directly to the stream.  
  * </ul>    
  */
 public class ResponseWriter extends TabWriter
 {
+	/**
+	 * The size of the character buffer of ResponseWriters which are
+	 * created by a Response.
+	 */ 
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	
+	
 	/**
 	 * Sets the default line separator used by a new ResponseWriter.
 	 * Since a ResponseWriter is mostly used in a web environment, it will by default
@@ -90,9 +104,62 @@ public class ResponseWriter extends TabWriter
 	 */
 	public ResponseWriter(Writer writer, boolean autoFlush)
 	{
-		super(writer, autoFlush);
+		this(writer, autoFlush, 0);
+	}
+	
+	
+	/**
+	 * Creates a new ResponseWriter. 
+	 * @param writer the underlying writer 
+	 * @param autoFlush - a boolean; if true, the println() methods will flush
+	 *      the output buffer
+	 * @param bufferSize the size of the internal character buffer. If &gt; 0
+	 * 		the ResponseWriter does not synchronize and must only be used by
+	 * 		a single thread.
+	 * @see TabWriter#TabWriter(Writer, boolean, int)
+	 */
+	public ResponseWriter(Writer writer, boolean autoFlush, int bufferSize)
+	{
+		super(writer, autoFlush, bufferSize);
 		setLineSeparator(defaultLineSeparator_);
 	}
+	
+	
+	/**
+	 * Creates a new ResponseWriter which writes to an OutputStream.
+	 * Since the encoding of the stream is known, the ResponseWriter
+	 * can write pre-encoded text directly to the stream.
+	 * @param stream the underlying stream
+	 * @param encoding the encoding used to convert characters to bytes
+	 * @throws UnsupportedEncodingException if the encoding is not supported
+	 * @see #print(String, byte[], Charset)
+	 */
+	public ResponseWriter(OutputStream stream, String encoding) throws UnsupportedEncodingException
+	{
+		this(stream, encoding, 0);
+	}
+	
+	
+	/**
+	 * Creates a new ResponseWriter which writes to an OutputStream.
+	 * @param stream the underlying stream
+	 * @param encoding the encoding used to convert characters to bytes
+	 * @param bufferSize the size of the internal character buffer. If &gt; 0
+	 * 		the ResponseWriter does not synchronize and must only be used by
+	 * 		a single thread.
+	 * @throws UnsupportedEncodingException if the encoding is not supported
+	 */
+	public ResponseWriter(OutputStream stream, String encoding, int bufferSize) throws UnsupportedEncodingException
+	{
+		this(new StreamOutput(stream, encoding), bufferSize);
+	}
+	
+	
+	private ResponseWriter(StreamOutput output, int bufferSize)
+	{
+		this(new OutputStreamWriter(output, output.charset), false, bufferSize);
+		output_ = output;
+	}
 
 	
 	//------------------------
@@ -270,6 +337,164 @@ public class ResponseWriter extends TabWriter
 	}
 	
 	
+	/**
+	 * Returns the Charset used to encode the characters written to the ResponseWriter,
+	 * or null if the ResponseWriter does not write to an OutputStream and therefore
+	 * the encoding is not known.
+	 */
+	public Charset getCharset()
+	{
+		return output_ != null ? output_.charset : null;
+	}
+	
+	
+	/**
+	 * Sets the OutputStream to which the ResponseWriter writes.
+	 * Derived classes call this method when they rebuild their output.
+	 * @param stream the stream or null, if the output of the ResponseWriter 
+	 * 		is no longer directly written to the current stream, e.g. because
+	 * 		it is intercepted by another Writer. 
+	 * @param encoding the encoding used to convert characters to bytes
+	 * @return a Writer which encodes characters and writes them to the stream,
+	 * 		or null if the stream is null. 
+	 * @throws UnsupportedEncodingException if the encoding is not supported
+	 */
+	protected Writer initStreamOutput(OutputStream stream, String encoding) throws UnsupportedEncodingException
+	{
+		if (stream == null)
+		{
+			// the writers on top of the current stream output now control its flushes
+			if (output_ != null)
+			{
+				output_.flushStream = true;
+				output_ = null;
+			}
+			return null;
+		}
+		output_ = new StreamOutput(stream, encoding);
+		return new OutputStreamWriter(output_, output_.charset);
+	}
+	
+	
+	/**
+	 * Prints a constant text for which an encoded form is available.
+	 * If the ResponseWriter writes to an OutputStream with the same charset, 
+	 * the bytes are directly written to the stream and the costs of 
+	 * character encoding are avoided. Else the text is printed. 
+	 * Generated templates use this method to print their static text.
+	 * @param text the text
+	 * @param bytes the text encoded with the charset
+	 * @param charset the charset used to encode the text
+	 */
+	public void print(String text, byte[] bytes, Charset charset)
+	{
+		if ((output_ == null) || !output_.charset.equals(charset))
+			write(text);
+		else
+		{
+			if (newLineStarted())
+				writeNewLineTab();
+			// move pending characters to the stream, without flushing the stream
+			super.flush();
+			try
+			{
+				output_.out.write(bytes, 0, bytes.length);
+			}
+			catch(IOException e)
+			{
+				setError(e);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Prints a constant text for which an encoded form is available, followed
+	 * by a line separator.
+	 * @see #print(String, byte[], Charset)
+	 */
+	public void println(String text, byte[] bytes, Charset charset)
+	{
+		print(text, bytes, charset);
+		println();
+	}
+	
+	
+	/**
+	 * Flushes the writer and the underlying stream.
+	 */
+	@Override public void flush()
+	{
+		if (output_ == null)
+			super.flush();
+		else
+		{
+			output_.flushStream = true;
+			try
+			{
+				super.flush();
+			}
+			finally
+			{
+				output_.flushStream = false;
+			}
+		}
+	}
+	
+	
+	/**
+	 * StreamOutput is the OutputStream between the OutputStreamWriter
+	 * and the response stream. It allows to move characters buffered by the 
+	 * OutputStreamWriter to the response stream without flushing the response stream. 
+	 */
+	private static class StreamOutput extends OutputStream
+	{
+		public StreamOutput(OutputStream out, String encoding) throws UnsupportedEncodingException
+		{
+			this.out = Check.notNull(out, "out");
+			Check.notNull(encoding, "encoding");
+			try
+			{
+				charset = Charset.forName(encoding);
+			}
+			catch(IllegalArgumentException e)
+			{
+				throw new UnsupportedEncodingException(encoding);
+			}
+		}
+		
+		
+		@Override public void write(int b) throws IOException
+		{
+			out.write(b);
+		}
+		
+		
+		@Override public void write(byte[] b, int off, int len) throws IOException
+		{
+			out.write(b, off, len);
+		}
+		
+		
+		@Override public void flush() throws IOException
+		{
+			if (flushStream)
+				out.flush();
+		}
+		
+		
+		@Override public void close() throws IOException
+		{
+			out.close();
+		}
+		
+		
+		public final OutputStream out;
+		public final Charset charset;
+		public boolean flushStream;
+	}
+	
+	
 	/**
 	 * Printable is a interface for print-aware classes who 
 	 * implement a custom print strategy. Templates and form controls
@@ -288,5 +513,6 @@ public class ResponseWriter extends TabWriter
 	private TypeSerializer serializer_;
 	private MsgBundle msgBundle_;
 	private Object context_;
+	private StreamOutput output_;
 	private static String defaultLineSeparator_ = "\n";
 }
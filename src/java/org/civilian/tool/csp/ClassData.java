@@ -17,6 +17,8 @@ package org.civilian.tool.csp;
 
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import org.civilian.Template;
 import org.civilian.internal.source.ImportList;
 
 
@@ -33,6 +35,32 @@ class ClassData
 		return (args != null) || (superArgs != null) || (superCall != null);
 	}
 	
+	
+	public boolean extendsTemplate()
+	{
+		return Template.class.getSimpleName().equals(extendsClass) || Template.class.getName().equals(extendsClass);
+	}
+	
+	
+	public boolean needsFields()
+	{
+		return (args != null) || (mixins != null) || standalone || (encodedTexts != null);
+	}
+	
+	
+	/**
+	 * Returns the index of the constant which holds the text.
+	 */
+	public int addEncodedText(String text)
+	{
+		if (encodedTexts == null)
+			encodedTexts = new LinkedHashMap<>();
+		Integer index = encodedTexts.get(text);
+		if (index == null)
+			encodedTexts.put(text, index = Integer.valueOf(encodedTexts.size()));
+		return index.intValue();
+	}
+	
 
 	public String packageName;
 	public String className;
@@ -51,6 +79,8 @@ class ClassData
 	public int superCallLine;
 	public boolean standalone;
 	public boolean isPublic = true;
+	public String preEncoding;
+	public LinkedHashMap<String,Integer> encodedTexts;
 }
 
 
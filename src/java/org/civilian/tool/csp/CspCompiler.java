@@ -22,8 +22,10 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 import org.civilian.Controller;
 import org.civilian.Template;
 import org.civilian.internal.source.OutputFile;
@@ -150,6 +152,10 @@ public class CspCompiler
 				options.encodingOut = args.next("output encoding");
 			else if (args.startsWith("-out:"))
 				options.outputLocation = OutputLocation.parse(args, true, true);
+			else if (args.consume("-preenc"))
+				options.preEncoding = args.next("pre-encoding");
+			else if (args.consume("-sync"))
+				options.sync = args.nextBoolean("sync mode");
 			else if (args.consume("-ts"))
 				options.timestamp = args.nextBoolean("timestamp mode");
 			else if (args.consume("-v"))
@@ -186,9 +192,11 @@ public class CspCompiler
 		System.out.println("-enc:out <v>         encoding of generated files                 " + DEFAULT_ENCODING);
 		System.out.println("-ext <v>             extension of template files                 " + EXTENSION);
 		System.out.println("-force               force compilation (ignore timestamps)");
+		System.out.println("-preenc <v>          pre-encode static text with this encoding");
 		System.out.println("-srcmap <true|false> print source map comments                   true");
 		OutputLocation.printHelp(true);
 		System.out.println("-r <true|false>      recurse subdirectories                      true");
+		System.out.println("-sync <true|false>   generate synchronized print methods         true");
 		System.out.println("-ts <true|false>     print generation timestamp into file        false");
 		System.out.println("-v 0|1|2             verbose                                     0");
 	}
@@ -365,7 +373,7 @@ public class CspCompiler
 			out.setTabCount(0);
 			out.print(swBody.toString());
 			out.setTabCount(tab);
-			if ((classData_.args != null) || (classData_.mixins != null) || classData_.standalone)
+			if (classData_.needsFields())
 				printFields(out);
 			
 			out.endBlock(); // class block, started in compileClassData
@@ -511,6 +519,21 @@ public class CspCompiler
 		
 		if (scanner_.getPos() > 0)
 			throw new CspException("invalid input: '" + scanner_.getRest() + "'", scanner_);
+		
+		//-------------------------------------
+		// pre-encoding of static text requires a ResponseWriter
+		if ((options_.preEncoding != null) &&
+			((classData_.writerClass == null) || ResponseWriter.class.getName().equals(classData_.writerClass)))
+		{
+			try
+			{
+				classData_.preEncoding = Charset.forName(options_.preEncoding).name();
+			}
+			catch(IllegalArgumentException e)
+			{
+				throw new CspException("unsupported pre-encoding '" + options_.preEncoding + "'", e);
+			}
+		}
 	}
 	
 		
@@ -615,6 +638,12 @@ public class CspCompiler
 		out.println(";");
 		out.println();
 		out.println();
+		// unsynchronized templates derived from Template override print(ResponseWriter)
+		boolean overridePrint = !options_.sync && !classData_.standalone && classData_.extendsTemplate();
+		if (overridePrint)
+			classData_.imports.add(ResponseWriter.class);
+		if (classData_.encodedTexts != null)
+			classData_.imports.add(Charset.class);
 		if (classData_.imports.write(out, ClassUtil.getPackageName(Controller.class)))
 		{
 			out.println();
@@ -666,9 +695,12 @@ public class CspCompiler
 			out.println();	
 		}
 
+		String sync = options_.sync ? "synchronized " : "";
 		if (classData_.standalone)
 		{
-			out.print("public synchronized void print(");
+			out.print("public ");
+			out.print(sync);
+			out.print("void print(");
 			out.print(classData_.writerClassSimple);
 			out.print(" out)");
 			if (classData_.exception != null)
@@ -695,19 +727,26 @@ public class CspCompiler
 			out.println();
 			out.println();
 		}
-		else if (classData_.mixins != null)
+		else if ((classData_.mixins != null) || overridePrint)
 		{
-			out.println("@Override public synchronized void print(ResponseWriter out) throws Exception");
+			out.print("@Override public ");
+			out.print(sync);
+			out.println("void print(ResponseWriter out) throws Exception");
 			out.beginBlock();
+			if (classData_.mixins == null)
+				out.println("printUnsynchronized(out);");
+			else
+			{
 				out.println("try");
 				out.beginBlock();
 					printMixinInit(out);
-					out.println("super.print(out);");
+					out.println(overridePrint ? "printUnsynchronized(out);" : "super.print(out);");
 					out.endBlock();
 				out.println("finally");
 				out.beginBlock();
 					printMixinClear(out);
 				out.endBlock();
+			}
 			out.endBlock();
 			out.println();
 			out.println();
@@ -776,6 +815,30 @@ public class CspCompiler
 			out.print(classData_.writerClassSimple);
 			out.println(" out;");
 		}
+		if (classData_.encodedTexts != null)
+			printEncodedTexts(out);
+	}
+	
+	
+	private void printEncodedTexts(SourceWriter out)
+	{
+		out.print("private static final Charset CSP_CHARSET = Charset.forName(\"");
+		out.print(classData_.preEncoding);
+		out.println("\");");
+		for (Map.Entry<String,Integer> entry : classData_.encodedTexts.entrySet())
+		{
+			int index = entry.getValue().intValue();
+			out.print("private static final String CSP_TEXT_");
+			out.print(index);
+			out.print(" = \"");
+			printJavaString(out, entry.getKey());
+			out.println("\";");
+			out.print("private static final byte[] CSP_BYTES_");
+			out.print(index);
+			out.print(" = CSP_TEXT_");
+			out.print(index);
+			out.println(".getBytes(CSP_CHARSET);");
+		}
 	}
 	
 	
@@ -1041,10 +1104,34 @@ public class CspCompiler
 	
 	private void printTemplateText(SourceWriter out, String content, int start, int end, boolean usePrintln)
 	{
-		out.print(usePrintln ? "out.println(\"" : "out.print(\"");
-		for (int i=start; i<end; i++)
+		String text = content.substring(start, end);
+		if ((classData_ != null) && (classData_.preEncoding != null))
 		{
-			char c = content.charAt(i);
+			// print the text constant and its pre-encoded bytes
+			int index = classData_.addEncodedText(text);
+			out.print(usePrintln ? "out.println(" : "out.print(");
+			out.print("CSP_TEXT_");
+			out.print(index);
+			out.print(", CSP_BYTES_");
+			out.print(index);
+			out.print(", CSP_CHARSET);");
+		}
+		else
+		{
+			out.print(usePrintln ? "out.println(\"" : "out.print(\"");
+			printJavaString(out, text);
+			out.print("\");");
+		}
+		printSrcMapComment(out, text);
+	}
+	
+	
+	private void printJavaString(SourceWriter out, String s)
+	{
+		int length = s.length();
+		for (int i=0; i<length; i++)
+		{
+			char c = s.charAt(i);
 			switch(c)
 			{
 				case '\t':
@@ -1061,8 +1148,6 @@ public class CspCompiler
 					break;
 			}
 		}
-		out.print("\");");
-		printSrcMapComment(out, content.substring(start, end));
 	}
 	
 	
@@ -1201,6 +1286,17 @@ public class CspCompiler
 		public boolean srcMap = true;
 		
 		
+		/**
+		 * Determines if the print methods generated by the compiler are synchronized.
+		 * Templates which are created and printed by a single thread, 
+		 * like templates created per request, do not need to be synchronized.
+		 * If false, templates derived from Template override the synchronized
+		 * {@link Template#print(ResponseWriter)} method.
+		 * The default is true.
+		 */
+		public boolean sync = true;
+		
+		
 		/**
 		 * The encoding of input template files.
 		 * By default it is UTF-8.
@@ -1214,6 +1310,17 @@ public class CspCompiler
 		 */
 		public String encodingOut;
 
+		/**
+		 * If not null, the compiler pre-encodes the static text of templates
+		 * with this encoding and stores the bytes in constants. At runtime the bytes
+		 * are directly written to the response if it uses the same encoding, else the 
+		 * text is printed. Pre-encoding is only applied to templates which print to a 
+		 * ResponseWriter. By default it is null.
+		 * @see ResponseWriter#print(String, byte[], Charset)
+		 */
+		public String preEncoding;
+		
+		
 		/**
 		 * The verbose level (0-2) determines the verbosity of compiler messages.
 		 */
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.tool.resource;
+
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.TreeSet;
+import org.civilian.Application;
+import org.civilian.controller.ControllerIndex;
+import org.civilian.controller.ControllerService;
+import org.civilian.controller.ControllerType;
+import org.civilian.internal.source.OutputFile;
+import org.civilian.internal.source.OutputLocation;
+import org.civilian.resource.scan.ResourceInfo;
+import org.civilian.resource.scan.ResourceScan;
+import org.civilian.resource.scan.ScanException;
+import org.civilian.util.Arguments;
+import org.civilian.util.Check;
+import org.civilian.util.ClassUtil;
+
+
+/**
+ * A command line tool to generate a {@link ControllerIndex} for
+ * all controllers of a Civilian application.
+ * The index should be placed into the package of the application class.
+ * At startup the application will then build all its ControllerTypes from the index.
+ * Run the tool without any arguments to print a detailed help message.
+ */
+public class ControllerIndexGenerator
+{
+	/**
+	 * Runs the ControllerIndexGenerator.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length == 0)
+			printHelp();
+		else
+			run(new Arguments(args));
+	}
+	
+	
+	/**
+	 * Prints a help screen.
+	 */
+	private static void printHelp()
+	{
+		System.out.println("Scans the classpath for controller classes and generates a controller index.");
+		System.out.println();
+		System.out.println("Usage:");
+		System.out.println("java " + ControllerIndexGenerator.class.getName() + " [<parameter>]* <app-class>");
+		System.out.println();
+		System.out.println("parameters:");
+		System.out.println("-out:dir <dir>       write to directory, or");
+		System.out.println("-out:package <dir>   write to package subdirectory below dir");
+		System.out.println("-out:file <file>     write to file");
+		System.out.println("-v                   turn on verbose messages");
+	}
+	
+	
+	public static void run(Arguments args) throws Exception
+	{
+		Options options = new Options();
+		while(args.startsWith("-"))
+		{
+			if (args.startsWith("-out:"))
+				options.outputLocation = OutputLocation.parse(args, true, true);
+			else if (args.consume("-v"))
+				options.verbose = true;
+			else
+				throw new IllegalArgumentException("unknown option " + args.next());
+		}
+		
+		options.setApplication(args.next("application class"));
+		
+		run(options);
+	}
+	
+	
+	public static void run(Options options) throws IOException
+	{
+		if (options.app == null)
+			throw new IllegalArgumentException("application not set");
+		Check.notNull(options.outputLocation, "outputLocation");
+		
+		ControllerIndexGenerator generator = new ControllerIndexGenerator(options);
+		generator.run();
+	}
+	
+	
+	private ControllerIndexGenerator(Options options)
+	{
+		options_ = options;
+	}
+	
+	
+	private void run() throws IOException, ScanException
+	{
+		ResourceScan scan = new ResourceScan(
+			options_.app.getControllerConfig().getRootPackage(),
+			options_.app.getControllerConfig().getNaming(),
+			options_.app.getResourceConfig().getPathParams(),
+			null);
+		
+		TreeSet<String> signatures = new TreeSet<>();
+		collectSignatures(scan.getInfo(), signatures);
+		
+		ControllerService service = new ControllerService(options_.app.getResourceConfig().getPathParams(), null, null, null);
+		ControllerIndex index = new ControllerIndex();
+		for (String signature : signatures)
+		{
+			ControllerType type = service.getControllerType(signature);
+			if (type != null)
+				index.add(type);
+		}
+		
+		generate(index);
+	}
+	
+	
+	private static void collectSignatures(ResourceInfo resInfo, TreeSet<String> signatures)
+	{
+		String signature = resInfo.getControllerSignature();
+		if (signature != null)
+			signatures.add(signature);
+		for (int i=0; i<resInfo.getChildCount(); i++)
+			collectSignatures(resInfo.getChild(i), signatures);
+	}
+	
+	
+	private void generate(ControllerIndex index) throws IOException
+	{
+		StringWriter out = new StringWriter();
+		index.write(out);
+		
+		Class<?> appClass 		= options_.app.getClass();
+		OutputFile outputFile	= options_.outputLocation.getOutputFile(
+			ClassUtil.getPackageName(appClass),
+			ControllerIndex.getFileName(appClass));
+		if (options_.verbose)
+			ResourceScan.log("writing " + outputFile.file.getAbsolutePath() + " (" + index.size() + " controllers)");
+		outputFile.write("UTF-8", out.toString());
+	}
+	
+	
+	/**
+	 * Holds the options for a run of {@link ControllerIndexGenerator}.
+	 */
+	public static class Options
+	{
+		public Application app;
+		public OutputLocation outputLocation;
+		public boolean verbose;
+		
+		
+		public void setApplication(String className)
+		{
+			Check.notNull(className, "application class");
+			try
+			{
+				app = ClassUtil.createObject(className, Application.class, null);
+			}
+			catch (Exception e)
+			{
+				throw new ScanException("cannot create application '" + className + "'");
+			}
+		}
+	}
+	
+	
+	private Options options_;
+}
@@ -130,6 +130,21 @@ public class Check
 	}
 	
 
+	/**
+	 * Checks that a long value is >= another value.
+	 * @param n the value
+	 * @param what describes the value
+	 * @return the value
+	 * @exception IllegalArgumentException if the value is outside the range.
+	 */
+	public static long greaterEquals(long n, long min, String what)
+	{
+		if (n < min)
+			throw new IllegalArgumentException(what + " must >= " + min + ", but is " + n);
+		return n;
+	}
+	
+
 	/**
 	 * Checks that the first class is a superclass of the second class.
 	 */
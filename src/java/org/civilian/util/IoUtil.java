@@ -100,6 +100,48 @@ public abstract class IoUtil
 	}
 
 	
+	/**
+	 * Copies data from an InputStream to an OutputStream.
+	 * @param length the number of bytes to copy, or -1 to copy all data
+	 * @param bufferSize the size of the copy buffer
+	 * @return the number of copied bytes
+	 * @exception IOException if an I/O error occurs
+	 */
+	public static long copy(InputStream src, OutputStream dest, long length, int bufferSize) throws IOException
+	{
+		byte buffer[] = new byte[length >= 0 ? (int)Math.max(1, Math.min(bufferSize, length)) : bufferSize];
+		long total = 0;
+		int count;
+		while (((length < 0) || (total < length)) &&
+			((count = src.read(buffer, 0, length < 0 ? buffer.length : (int)Math.min(buffer.length, length - total))) != -1))
+		{
+			dest.write(buffer, 0, count);
+			total += count;
+		}
+		return total;
+	}
+
+	
+	/**
+	 * Skips bytes of an InputStream.
+	 * @exception IOException if an I/O error occurs or the stream has less than n bytes
+	 */
+	public static void skip(InputStream in, long n) throws IOException
+	{
+		while (n > 0)
+		{
+			long skipped = in.skip(n);
+			if (skipped <= 0)
+			{
+				if (in.read() == -1)
+					throw new IOException("unexpected end of stream");
+				skipped = 1;
+			}
+			n -= skipped;
+		}
+	}
+	
+	
 	/**
 	 * Copies all data from an InputStream to an OutputStream.
 	 * @exception IOException if an I/O error occurs
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.util;
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * LruCache is a thread-safe, size-bounded cache which evicts
+ * the least recently used entries.
+ * The cache is divided into stripes, each stripe guarded by its own lock,
+ * to reduce lock contention. Therefore the LRU order is only maintained
+ * per stripe.
+ * LruCache also counts hits, misses and evictions.
+ * Null keys and values are not supported.
+ */
+public class LruCache<K,V>
+{
+	/**
+	 * Creates a new LruCache with a default number of stripes.
+	 * @param maxSize the maximum number of entries
+	 */
+	public LruCache(int maxSize)
+	{
+		this(maxSize, 16);
+	}
+
+
+	/**
+	 * Creates a new LruCache.
+	 * @param maxSize the maximum number of entries
+	 * @param stripeCount the number of stripes. It is rounded to a power of 2
+	 * 		and reduced if the maxSize is small.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public LruCache(int maxSize, int stripeCount)
+	{
+		Check.greaterEquals(maxSize, 1, "maxSize");
+		stripeCount	= Integer.highestOneBit(Math.max(1, Math.min(stripeCount, maxSize / 8)));
+		maxSize_ 	= maxSize;
+		mask_		= stripeCount - 1;
+		stripes_ 	= new Stripe[stripeCount];
+		for (int i=0; i<stripeCount; i++)
+			stripes_[i] = new Stripe<>(maxSize / stripeCount + (i < maxSize % stripeCount ? 1 : 0));
+	}
+
+
+	private Stripe<K,V> stripe(Object key)
+	{
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return stripes_[h & mask_];
+	}
+
+
+	/**
+	 * Returns the value associated with the key, or null if not cached.
+	 */
+	public V get(K key)
+	{
+		Stripe<K,V> stripe = stripe(key);
+		synchronized(stripe)
+		{
+			V value = stripe.get(key);
+			if (value != null)
+				stripe.hits++;
+			else
+				stripe.misses++;
+			return value;
+		}
+	}
+
+
+	/**
+	 * Puts a value into the cache.
+	 * @return the value previously associated with the key or null.
+	 */
+	public V put(K key, V value)
+	{
+		Check.notNull(value, "value");
+		Stripe<K,V> stripe = stripe(key);
+		synchronized(stripe)
+		{
+			return stripe.put(key, value);
+		}
+	}
+
+
+	/**
+	 * Puts a value into the cache, if the key is not associated with a value.
+	 * @return the value previously associated with the key or null.
+	 * 		If not null, the cache was not changed.
+	 */
+	public V putIfAbsent(K key, V value)
+	{
+		Check.notNull(value, "value");
+		Stripe<K,V> stripe = stripe(key);
+		synchronized(stripe)
+		{
+			V old = stripe.get(key);
+			if (old == null)
+				stripe.put(key, value);
+			return old;
+		}
+	}
+
+
+	/**
+	 * Removes a cache entry.
+	 * @return the value previously associated with the key or null.
+	 */
+	public V remove(K key)
+	{
+		Stripe<K,V> stripe = stripe(key);
+		synchronized(stripe)
+		{
+			return stripe.remove(key);
+		}
+	}
+
+
+	/**
+	 * Removes all cache entries.
+	 */
+	public void clear()
+	{
+		for (Stripe<K,V> stripe : stripes_)
+		{
+			synchronized(stripe)
+			{
+				stripe.clear();
+			}
+		}
+	}
+
+
+	/**
+	 * Returns the number of cache entries.
+	 */
+	public int size()
+	{
+		int size = 0;
+		for (Stripe<K,V> stripe : stripes_)
+		{
+			synchronized(stripe)
+			{
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+
+
+	/**
+	 * Returns the maximum number of cache entries.
+	 */
+	public int getMaxSize()
+	{
+		return maxSize_;
+	}
+
+
+	/**
+	 * Returns the number of successful lookups.
+	 */
+	public long getHits()
+	{
+		long n = 0;
+		for (Stripe<K,V> stripe : stripes_)
+		{
+			synchronized(stripe)
+			{
+				n += stripe.hits;
+			}
+		}
+		return n;
+	}
+
+
+	/**
+	 * Returns the number of unsuccessful lookups.
+	 */
+	public long getMisses()
+	{
+		long n = 0;
+		for (Stripe<K,V> stripe : stripes_)
+		{
+			synchronized(stripe)
+			{
+				n += stripe.misses;
+			}
+		}
+		return n;
+	}
+
+
+	/**
+	 * Returns the number of entries which were evicted
+	 * because the cache exceeded its maximum size.
+	 */
+	public long getEvictions()
+	{
+		long n = 0;
+		for (Stripe<K,V> stripe : stripes_)
+		{
+			synchronized(stripe)
+			{
+				n += stripe.evictions;
+			}
+		}
+		return n;
+	}
+
+
+	/**
+	 * Returns a info string containing size and statistics of the cache.
+	 */
+	@Override public String toString()
+	{
+		return "size=" + size() + "/" + maxSize_ +
+			", hits=" + getHits() +
+			", misses=" + getMisses() +
+			", evictions=" + getEvictions();
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class Stripe<K,V> extends LinkedHashMap<K,V>
+	{
+		public Stripe(int maxSize)
+		{
+			super(16, 0.75f, true);
+			maxSize_ = maxSize;
+		}
+
+
+		@Override protected boolean removeEldestEntry(Map.Entry<K,V> eldest)
+		{
+			if (size() > maxSize_)
+			{
+				evictions++;
+				return true;
+			}
+			else
+				return false;
+		}
+
+
+		public long hits;
+		public long misses;
+		public long evictions;
+		private final int maxSize_;
+	}
+
+
+	private final int maxSize_;
+	private final int mask_;
+	private final Stripe<K,V>[] stripes_;
+}
@@ -23,6 +23,10 @@ import java.io.Writer;
 
 /**
  * A PrintWriter implementation to write pretty indented files.
+ * If created with a buffer size &gt; 0, the TabWriter collects the 
+ * written characters in an own buffer and writes them in large blocks to the
+ * underlying writer. In this mode it does not synchronize on its lock
+ * and must only be used by a single thread.
  */
 public class TabWriter extends PrintWriter
 {
@@ -64,9 +68,26 @@ public class TabWriter extends PrintWriter
 	 *      the output buffer
 	 */
 	public TabWriter(Writer out, boolean autoFlush)
+	{
+		this(out, autoFlush, 0);
+	}
+	
+	
+	/**
+	 * Creates a TabWriter.
+	 * @param out a Writer
+	 * @param autoFlush - a boolean; if true, the println() methods will flush
+	 *      the output buffer
+	 * @param bufferSize the size of the internal character buffer. If &gt; 0 the
+	 * 		TabWriter buffers the output and does not synchronize, if 0 the
+	 * 		TabWriter directly writes to the underlying writer.
+	 */
+	public TabWriter(Writer out, boolean autoFlush, int bufferSize)
 	{
 		super(out, false);
 		autoFlush_ = autoFlush;
+		if (Check.greaterEquals(bufferSize, 0, "bufferSize") > 0)
+			buffer_ = new char[bufferSize];
 	}
 
 
@@ -130,7 +151,7 @@ public class TabWriter extends PrintWriter
 	protected void writeNewLineTab()
 	{
 		for (int j=tabCount_; j>0; j--)
-			super.write(tabChars_, 0, tabChars_.length);
+			writeRaw(tabChars_, 0, tabChars_.length);
 		newLineStarted_ = false;
 	}
 
@@ -149,6 +170,120 @@ public class TabWriter extends PrintWriter
 	//-------------------------------------------------------
 	
 
+	/**
+	 * Returns if the TabWriter uses an own buffer.
+	 */
+	public boolean isBuffered()
+	{
+		return buffer_ != null;
+	}
+	
+	
+	/**
+	 * Discards the characters in the internal buffer.
+	 */
+	public void resetBuffer()
+	{
+		bufferPos_ = 0;
+	}
+	
+	
+	/**
+	 * Writes the characters in the internal buffer to the underlying writer.
+	 */
+	private void flushBuffer()
+	{
+		if (bufferPos_ > 0)
+		{
+			int n = bufferPos_;
+			bufferPos_ = 0;
+			try
+			{
+				out.write(buffer_, 0, n);
+			}
+			catch(IOException e)
+			{
+				setError(e);
+			}
+		}
+	}
+	
+	
+	private void writeRaw(int c)
+	{
+		if (buffer_ == null)
+			super.write(c);
+		else
+		{
+			if (bufferPos_ == buffer_.length)
+				flushBuffer();
+			buffer_[bufferPos_++] = (char)c;
+		}
+	}
+	
+	
+	private void writeRaw(char buf[], int off, int len)
+	{
+		if (buffer_ == null)
+			super.write(buf, off, len);
+		else if (len >= buffer_.length)
+		{
+			flushBuffer();
+			try
+			{
+				out.write(buf, off, len);
+			}
+			catch(IOException e)
+			{
+				setError(e);
+			}
+		}
+		else
+		{
+			if (len > buffer_.length - bufferPos_)
+				flushBuffer();
+			System.arraycopy(buf, off, buffer_, bufferPos_, len);
+			bufferPos_ += len;
+		}
+	}
+	
+	
+	private void writeRaw(String s, int off, int len)
+	{
+		if (buffer_ == null)
+			super.write(s, off, len);
+		else if (len >= buffer_.length)
+		{
+			flushBuffer();
+			try
+			{
+				out.write(s, off, len);
+			}
+			catch(IOException e)
+			{
+				setError(e);
+			}
+		}
+		else
+		{
+			if (len > buffer_.length - bufferPos_)
+				flushBuffer();
+			s.getChars(off, off + len, buffer_, bufferPos_);
+			bufferPos_ += len;
+		}
+	}
+	
+	
+	/**
+	 * Flushes the stream.
+	 */
+	@Override public void flush()
+	{
+		flushBuffer();
+		super.flush();
+	}
+	
+	
 	/**
 	 * Closes the stream.
 	 */
@@ -213,7 +348,7 @@ public class TabWriter extends PrintWriter
 	{
 		if (newLineStarted_)
 			writeNewLineTab();
-		super.write(c);
+		writeRaw(c);
 	}
 
 
@@ -224,7 +359,7 @@ public class TabWriter extends PrintWriter
 	{
 		if (newLineStarted_)
 			writeNewLineTab();
-		super.write(buf, off, len);
+		writeRaw(buf, off, len);
 	}
 
 
@@ -235,7 +370,7 @@ public class TabWriter extends PrintWriter
 	{
 		if (newLineStarted_)
 			writeNewLineTab();
-		super.write(s, off, length);
+		writeRaw(s, off, length);
 	}
 
 
@@ -352,6 +487,7 @@ public class TabWriter extends PrintWriter
 	
 	@Override public String toString()
 	{
+		flushBuffer();
 		return out.toString();
 	}
 
@@ -360,6 +496,8 @@ public class TabWriter extends PrintWriter
 	private IOException error_;
 	private boolean newLineStarted_ = true;
 	private int tabCount_ = 0;
+	private char buffer_[];
+	private int bufferPos_;
 	private char tabChars_[] = defaultTabChars_;
 	private char lineSeparator_[] = systemLineSeparator_;
 	private static char defaultTabChars_[] = { '\t' };
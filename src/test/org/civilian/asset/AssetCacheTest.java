@@ -16,8 +16,15 @@
 package org.civilian.asset;
 
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.civilian.CivTest;
+import org.civilian.content.ContentTypeLookup;
 import org.civilian.internal.asset.AssetCache;
+import org.civilian.internal.asset.DirectoryLocation;
+import org.civilian.resource.Path;
 import org.junit.Test;
 
 
@@ -59,4 +66,274 @@ public class AssetCacheTest extends CivTest
 		// test unknown asset access
 		assertNull(cache.getAsset("/test/xxxsome.css"));
 	}
+	
+	
+	@Test public void testEviction() throws Exception
+	{
+		final char[] data = new char[1000];
+		java.util.Arrays.fill(data, 'x');
+		CountingLocation location = new CountingLocation(new String(data));
+		
+		// room for 4 assets with 1000 bytes and the entry overhead
+		AssetCache cache = new AssetCache(location, 2000, 4 * 1300);
+		
+		// a becomes a frequently used asset
+		Asset a = cache.getAsset("/test/a");
+		assertSame(a, cache.getAsset("/test/a"));
+		assertEquals(1, location.found);
+		
+		// a scan over many assets does not evict a
+		for (int i=0; i<20; i++)
+			assertNotNull(cache.getAsset("/test/scan" + i));
+		assertEquals(21, location.found);
+		assertTrue(cache.getEvictions() >= 17);
+		assertTrue(cache.getCount() <= 4);
+		assertTrue(cache.getSize() <= 4 * 1300);
+		
+		assertSame(a, cache.getAsset("/test/a"));
+		assertEquals(21, location.found);
+		assertEquals(2, cache.getHits());
+		assertEquals(21, cache.getMisses());
+		
+		// assets larger than the total size are streamed 
+		location.data = new String(data) + new String(data) + new String(data) + new String(data) + new String(data);
+		TestAsset big = (TestAsset)cache.getAsset("/test/big");
+		assertNull(big.getContent());
+		
+		String info = cache.getInfo();
+		assertTrue(info, info.startsWith("AssetCache[maxMem=2000, maxTotal=5200, count="));
+	}
+	
+	
+	@Test public void testNotFound() throws Exception
+	{
+		CountingLocation location = new CountingLocation(null);
+		AssetCache cache = new AssetCache(location, 2000);
+		
+		// without not-found cache every miss reaches the location
+		assertNull(cache.getAsset("/test/a"));
+		assertNull(cache.getAsset("/test/a"));
+		assertEquals(2, location.found);
+		
+		// misses are remembered
+		cache.setNotFoundCache(10, 60000L);
+		assertNull(cache.getAsset("/test/a"));
+		assertNull(cache.getAsset("/test/a"));
+		assertNull(cache.getAsset("/test/a"));
+		assertEquals(3, location.found);
+		assertEquals(2, cache.getNotFoundHits());
+		assertTrue(cache.getInfo().contains("notFound=1, notFoundHits=2"));
+		
+		// cleared
+		location.data = "abc";
+		cache.clearNotFoundCache();
+		assertNotNull(cache.getAsset("/test/a"));
+		assertEquals(4, location.found);
+		
+		// expired
+		location.data = null;
+		cache.setNotFoundCache(10, 1L);
+		assertNull(cache.getAsset("/test/b"));
+		Thread.sleep(5);
+		assertNull(cache.getAsset("/test/b"));
+		assertEquals(6, location.found);
+	}
+	
+	
+	@Test public void testInvalidation() throws Exception
+	{
+		TestAsset asset = new TestAsset("hello");
+		TestLocation location = new TestLocation("/test", "/some.css", asset);
+		AssetCache cache = new AssetCache(location, 5);
+		
+		cache.setInvalidation(AssetConfig.Invalidation.IMMUTABLE);
+		assertSame(asset, cache.getAsset("/test/some.css"));
+		asset.isValid = false;
+		assertSame(asset, cache.getAsset("/test/some.css"));
+		assertTrue(cache.getInfo().contains("invalidation=IMMUTABLE"));
+		
+		// revalidation evicts invalid assets
+		cache.revalidate();
+		assertEquals(0, cache.getCount());
+	}
+	
+	
+	@Test public void testWatch() throws Exception
+	{
+		File dir = createTempDir();
+		File file = new File(dir, "a.css");
+		write(file, "a");
+		
+		AssetCache cache = new AssetCache(new DirectoryLocation("/test", dir), 1000);
+		cache.setInvalidation(AssetConfig.Invalidation.WATCH);
+		cache.setNotFoundCache(10, 60000L);
+		cache.init(Path.ROOT, "UTF-8", ContentTypeLookup.EMPTY);
+		try
+		{
+			Asset a = cache.getAsset("/test/a.css");
+			assertNotNull(a);
+			assertNull(cache.getAsset("/test/b.css"));
+			
+			write(file, "changed");
+			write(new File(dir, "b.css"), "b");
+			
+			// the watcher evicts the changed asset and clears the not-found cache
+			Asset b = null;
+			for (int i=0; (i<100) && ((b == null) || (cache.getAsset("/test/a.css") == a)); i++)
+			{
+				Thread.sleep(50);
+				b = cache.getAsset("/test/b.css");
+			}
+			assertNotNull(b);
+			assertNotSame(a, cache.getAsset("/test/a.css"));
+			assertEquals(7, cache.getAsset("/test/a.css").length());
+		}
+		finally
+		{
+			cache.close();
+			new File(dir, "a.css").delete();
+			new File(dir, "b.css").delete();
+			dir.delete();
+		}
+	}
+	
+	
+	@Test public void testCoalesce() throws Exception
+	{
+		final BlockingLocation location = new BlockingLocation();
+		final AssetCache cache = new AssetCache(location, 1000);
+		final Asset[] assets = new Asset[4];
+		Thread[] threads = new Thread[assets.length];
+		for (int i=0; i<threads.length; i++)
+		{
+			final int n = i;
+			threads[i] = new Thread()
+			{
+				@Override public void run()
+				{
+					try
+					{
+						assets[n] = cache.getAsset("/test/a");
+					}
+					catch (Exception e)
+					{
+						e.printStackTrace();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		
+		// only one thread reaches the location, the others wait for its result 
+		location.started.await();
+		Thread.sleep(50);
+		location.release.countDown();
+		for (Thread thread : threads)
+			thread.join();
+		
+		assertEquals(1, location.found.get());
+		for (Asset asset : assets)
+			assertSame(assets[0], asset);
+		assertEquals(1, cache.getCount());
+	}
+	
+	
+	@Test public void testPreload() throws Exception
+	{
+		File dir = createTempDir();
+		File cssDir = new File(dir, "css");
+		File subDir = new File(cssDir, "sub");
+		subDir.mkdirs();
+		File[] files = new File[] { new File(cssDir, "a.css"), new File(subDir, "b.css"), new File(dir, "c.js") };
+		for (File file : files)
+			write(file, file.getName());
+		
+		try
+		{
+			AssetCache cache = new AssetCache(new DirectoryLocation("/test", dir), 1000);
+			cache.init(Path.ROOT, "UTF-8", ContentTypeLookup.EMPTY);
+			
+			assertEquals(2, AssetServices.preload(cache, new String[] { "test/css/**/*.css" }, 2));
+			assertEquals(2, cache.getCount());
+			assertEquals(2, cache.getMisses());
+			assertNotNull(cache.getAsset("/test/css/sub/b.css"));
+			assertEquals(1, cache.getHits());
+			
+			assertEquals(1, AssetServices.preload(cache, new String[] { "/test/c.js", "/test/x" }, 2));
+			assertEquals(3, cache.getCount());
+		}
+		finally
+		{
+			for (File file : files)
+				file.delete();
+			subDir.delete();
+			cssDir.delete();
+			dir.delete();
+		}
+	}
+	
+	
+	private static void write(File file, String content) throws Exception
+	{
+		try(FileOutputStream out = new FileOutputStream(file))
+		{
+			out.write(content.getBytes());
+		}
+	}
+	
+	
+	private static class BlockingLocation extends AssetLocation
+	{
+		public BlockingLocation()
+		{
+			super("/test");
+		}
+		
+		
+		@Override protected Asset find(Path assetPath) throws Exception
+		{
+			found.incrementAndGet();
+			started.countDown();
+			release.await();
+			return new TestAsset("a");
+		}
+
+		
+		@Override protected String getInfoParam()
+		{
+			return "Blocking";
+		}
+		
+		
+		public final AtomicInteger found = new AtomicInteger();
+		public final CountDownLatch started = new CountDownLatch(1);
+		public final CountDownLatch release = new CountDownLatch(1);
+	}
+	
+	
+	private static class CountingLocation extends AssetLocation
+	{
+		public CountingLocation(String data)
+		{
+			super("/test");
+			this.data = data;
+		}
+		
+		
+		@Override protected Asset find(Path assetPath) throws Exception
+		{
+			found++;
+			return data != null ? new TestAsset(data) : null;
+		}
+
+		
+		@Override protected String getInfoParam()
+		{
+			return "Counting";
+		}
+		
+		
+		public String data;
+		public int found;
+	}
 }
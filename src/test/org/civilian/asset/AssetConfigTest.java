@@ -30,6 +30,28 @@ public class AssetConfigTest extends CivTest
 		config.setMaxCachedSize(15);
 		assertEquals(15, config.getMaxCachedSize());
 		
+		assertEquals(AssetConfig.DEFAULT_MAX_CACHE_TOTAL_SIZE, config.getMaxCachedTotalSize());
+		config.setMaxCachedTotalSize(100000L);
+		assertEquals(100000L, config.getMaxCachedTotalSize());
+		
+		assertEquals(Asset.Storage.HEAP, config.getCacheStorage());
+		config.setCacheStorage(Asset.Storage.DIRECT);
+		assertEquals(Asset.Storage.DIRECT, config.getCacheStorage());
+		
+		assertEquals(AssetConfig.DEFAULT_NOT_FOUND_CACHE_SIZE, config.getNotFoundCacheSize());
+		config.setNotFoundCacheSize(0);
+		assertEquals(0, config.getNotFoundCacheSize());
+		assertEquals(AssetConfig.DEFAULT_NOT_FOUND_CACHE_TTL, config.getNotFoundCacheTtl());
+		config.setNotFoundCacheTtl(100L);
+		assertEquals(100L, config.getNotFoundCacheTtl());
+		
+		assertEquals(0, config.getPreloads().length);
+		config.addPreload("css/**");
+		assertArrayEquals2(config.getPreloads(), "css/**");
+		assertEquals(AssetConfig.DEFAULT_PRELOAD_THREADS, config.getPreloadThreads());
+		config.setPreloadThreads(2);
+		assertEquals(2, config.getPreloadThreads());
+		
 		assertNull(config.getLocation("nowhere"));
 		assertEquals(0, config.getLocationCount());
 		
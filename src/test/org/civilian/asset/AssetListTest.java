@@ -18,10 +18,12 @@ package org.civilian.asset;
 
 import org.junit.Test;
 import static org.mockito.Mockito.*;
+import org.civilian.content.ContentTypeLookup;
 import org.civilian.resource.Path;
 import org.civilian.response.TestResponseWriter;
 import org.civilian.template.mixin.HtmlMixin;
 import org.civilian.CivTest;
+import org.civilian.util.IoUtil;
 
 
 public class AssetListTest extends CivTest
@@ -43,6 +45,77 @@ public class AssetListTest extends CivTest
 	}
 
 
+	@Test public void testBundle() throws Exception
+	{
+		AssetService source = AssetServices.combine(Path.ROOT, 
+			new TestLocation("", "/js/a.js", new TestAsset("var a = 1")),
+			new TestLocation("", "/js/b.js", new TestAsset("var b = 2")));
+		BundleLocation bundles = new BundleLocation("bundles");
+		bundles.init(Path.ROOT, "UTF-8", ContentTypeLookup.EMPTY);
+		
+		AssetList list = new AssetList(AssetList.JS_TYPE, "js/a.js", "js/b.js");
+		list.bundle(source, bundles, "app.js", null);
+		String path = list.getProductionPaths()[0];
+		assertTrue(path, path.matches("bundles/app-[0-9a-f]{10}\\.js"));
+		
+		Asset bundle = bundles.getAsset(path);
+		assertNotNull(bundle);
+		assertTrue(bundle.isImmutable());
+		assertEquals("var a = 1;\nvar b = 2;\n", new String(IoUtil.readBytes(bundle.getInputStream()), "UTF-8"));
+		
+		// minified and therefore different content results in a different path
+		AssetList.Minifier minifier = new AssetList.Minifier()
+		{
+			@Override public String minify(String content, AssetList.Type type)
+			{
+				return content.replace(" ", "");
+			}
+		};
+		list.bundle(source, bundles, "app.js", minifier);
+		assertFalse(path.equals(list.getProductionPaths()[0]));
+		
+		// relative urls of css assets are rewritten against the bundle location
+		AssetService cssSource = AssetServices.combine(Path.ROOT, 
+			new TestLocation("", "/css/a.css", new TestAsset("a { background: url('img/a.png'); }")),
+			new TestLocation("", "/css/lib/b.css", new TestAsset("b { background: url(../../img/b.png?v=1) }")));
+		AssetList cssList = new AssetList(AssetList.CSS_TYPE, "css/a.css", "css/lib/b.css");
+		cssList.bundle(cssSource, bundles, "app.css", null);
+		Asset cssBundle = bundles.getAsset(cssList.getProductionPaths()[0]);
+		assertEquals("a { background: url('../css/img/a.png'); }\nb { background: url(../img/b.png?v=1) }\n", 
+			new String(IoUtil.readBytes(cssBundle.getInputStream()), "UTF-8"));
+		
+		try
+		{
+			new AssetList(AssetList.CSS_TYPE, "x.css").bundle(source, bundles, "app.css", null);
+			fail();
+		}
+		catch(IllegalArgumentException e)
+		{
+			assertEquals("asset 'x.css' not found", e.getMessage());
+		}
+	}
+
+	
+	@Test public void testRewriteCssUrls() throws Exception
+	{
+		assertRewrite("url(\"../css/x.png\")",	"url(\"x.png\")",			"css/a.css", "bundles");
+		assertRewrite("url(../css/x.png#a)",	"url(./x.png#a)",			"css/a.css", "bundles");
+		assertRewrite("url(css/x.png)",			"url( x.png )",				"css/a.css", "");
+		assertRewrite("url(x.png)",				"url(../x.png)",			"css/a/b.css", "css");
+		assertRewrite("url(/x.png)",			"url(/x.png)",				"css/a.css", "bundles");
+		assertRewrite("url(data:image/png;base64,AA==)", "url(data:image/png;base64,AA==)", "css/a.css", "bundles");
+		assertRewrite("url(http://x.org/y.png)", "url(http://x.org/y.png)",	"css/a.css", "bundles");
+		assertRewrite("url(../../x.png)",		"url(../../x.png)",			"css/a.css", "bundles");
+		assertRewrite("url(x.png)",				"url(x.png)",				"/css/a.css", "/css");
+	}
+	
+	
+	private void assertRewrite(String expected, String css, String sourcePath, String targetDir)
+	{
+		assertEquals(expected, AssetList.rewriteCssUrls(css, sourcePath, targetDir));
+	}
+	
+	
 	@Test public void testTypes() throws Exception
 	{
 		HtmlMixin html = mock(HtmlMixin.class);
@@ -19,7 +19,10 @@ package org.civilian.asset;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.Reader;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import org.civilian.Application;
 import org.civilian.CivTest;
 import org.civilian.content.ContentType;
@@ -52,6 +55,49 @@ public class AssetLocationTest extends CivTest
 	}
 	
 
+	@Test public void testJarLocation() throws Exception
+	{
+		File file = File.createTempFile("test", ".jar");
+		try
+		{
+			try(JarOutputStream out = new JarOutputStream(new FileOutputStream(file)))
+			{
+				JarEntry entry = new JarEntry("web/js/a.js");
+				entry.setTime(1000000000000L);
+				out.putNextEntry(entry);
+				out.write("var a;".getBytes());
+				out.putNextEntry(new JarEntry("other/b.js"));
+				out.write("var b;".getBytes());
+			}
+			
+			AssetLocation location = AssetServices.getJarLocation("/", file, "/web/");
+			try
+			{
+				assertNull(location.getAsset("/b.js"));
+				assertNull(location.getAsset("/other/b.js"));
+				assertNull(location.getAsset("/js"));
+				
+				Asset asset = location.getAsset("/js/a.js");
+				assertNotNull(asset);
+				assertEquals(6, asset.length());
+				assertEquals(1000000000000L, asset.lastModified());
+				assertTrue(asset.isValid());
+				asset.readContent();
+				assertArrayEquals("var a;".getBytes(), asset.getContent());
+				assertTrue(location.getInfo(), location.getInfo().endsWith("!/web"));
+			}
+			finally
+			{
+				location.close();
+			}
+		}
+		finally
+		{
+			assertTrue(file.delete());
+		}
+	}
+	
+
 	@Test public void testCivAssetLocation() throws Exception
 	{
 		AssetLocation location = AssetServices.getCivResourceLocation(null, null, false);
@@ -60,4 +60,28 @@ public class AssetServicesTest extends CivTest
 		assertEquals(ContentType.TEXT_CSS, loc.getContentType());
 		assertEquals("/cp -> res:assets, UTF-8", loc.getInfo());
 	}
+	
+	
+	@Test public void testPreloadPattern() throws Exception
+	{
+		assertPreload("css/**/*.css", 	"/css/a.css", "/css/x/y/a.css", "!/css/a.js", "!/js/a.css");
+		assertPreload("/css/*.css", 	"/css/a.css", "!/css/x/a.css");
+		assertPreload("/img/?.png", 	"/img/a.png", "!/img/ab.png");
+		assertPreload("/css", 			"/css", "/css/a/b.css", "!/cssx");
+		assertPreload("/", 				"/a", "/a/b");
+		assertPreload("/a.b+c", 		"/a.b+c", "!/axb+c");
+	}
+	
+	
+	private static void assertPreload(String pattern, String... paths)
+	{
+		java.util.regex.Pattern regex = AssetServices.compilePreload(pattern);
+		for (String path : paths)
+		{
+			boolean expected = !path.startsWith("!");
+			if (!expected)
+				path = path.substring(1);
+			assertEquals(pattern + " ~ " + path, expected, regex.matcher(path).matches());
+		}
+	}
 }
@@ -16,19 +16,27 @@
 package org.civilian.asset;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
+import java.nio.file.Files;
 import org.junit.Test;
 import static org.mockito.Mockito.*;
 import org.civilian.CivTest;
 import org.civilian.Request;
 import org.civilian.Response;
+import org.civilian.content.CompressionScheme;
 import org.civilian.content.ContentType;
 import org.civilian.context.test.TestResponse;
 import org.civilian.internal.ParamList;
+import org.civilian.internal.asset.FileAsset;
 import org.civilian.internal.asset.MemoryAsset;
 import org.civilian.internal.asset.UrlAsset;
+import org.civilian.processor.Compressor;
+import org.civilian.util.IoUtil;
 
 
 public class AssetTest extends CivTest
@@ -104,5 +112,235 @@ public class AssetTest extends CivTest
 		assertEquals("ISO-8859-1", response.getContentEncoding());
 		assertEquals(Response.Status.SC200_OK, response.getStatus());
 		assertEquals("content", response.getContentText(true));
+		assertNull(response.getHeaders().get("Cache-Control"));
+		
+		asset.setImmutable(true);
+		response = new TestResponse(request);
+		asset.write(response, true);
+		assertEquals("public, max-age=31536000, immutable", response.getHeaders().get("Cache-Control"));
+	}
+	
+	
+	@Test public void testGzip() throws Exception
+	{
+		StringBuilder s = new StringBuilder();
+		for (int i=0; i<100; i++)
+			s.append("body { color: red; }\n");
+		String data = s.toString();
+		
+		TestAsset asset = new TestAsset(data);
+		asset.setEncoding("UTF-8");
+		asset.readGzipContent();
+		assertEquals(-1L, asset.gzipLength());
+		
+		asset.readContent();
+		asset.readGzipContent();
+		assertTrue(asset.gzipLength() > 0);
+		assertTrue(asset.gzipLength() < data.length());
+		
+		Request request 			= mock(Request.class);
+		ParamList reqHeaders 		= new ParamList(true);
+		TestResponse response 		= new TestResponse(request);
+		when(request.getHeaders()).thenReturn(reqHeaders);
+		
+		// not accepted
+		asset.write(response, true);
+		assertEquals("Accept-Encoding", response.getHeaders().get("Vary"));
+		assertNull(response.getHeaders().get("Content-Encoding"));
+		assertEquals(data, response.getContentText(true));
+		verify(request, never()).setAttribute(Compressor.NO_COMPRESSION, Boolean.TRUE);
+		
+		// accepted
+		response = new TestResponse(request);
+		reqHeaders.set("Accept-Encoding", "gzip, deflate");
+		asset.write(response, true);
+		assertEquals("Accept-Encoding", response.getHeaders().get("Vary"));
+		assertEquals("gzip", response.getHeaders().get("Content-Encoding"));
+		assertEquals(asset.gzipLength(), response.getContentLength());
+		verify(request).setAttribute(Compressor.NO_COMPRESSION, Boolean.TRUE);
+		byte[] gzip = response.getContentBytes(true);
+		try(InputStream in = CompressionScheme.DEFAULT_GZIP_SCHEME.wrap(new ByteArrayInputStream(gzip)))
+		{
+			assertEquals(data, new String(IoUtil.readBytes(in)));
+		}
+		String gzipETag = response.getHeaders().get("ETag");
+		assertTrue(gzipETag.endsWith("-gzip\""));
+		
+		// a 304 carries the etag of the gzip variant
+		response = new TestResponse(request);
+		reqHeaders.set("If-None-Match", gzipETag);
+		asset.write(response, true);
+		assertEquals(Response.Status.SC304_NOT_MODIFIED, response.getStatus());
+		assertEquals(gzipETag, response.getHeaders().get("ETag"));
+		assertEquals("Accept-Encoding", response.getHeaders().get("Vary"));
+		
+		// incompressible content has no gzip variant
+		TestAsset small = new TestAsset("content");
+		small.readContent();
+		small.readGzipContent();
+		assertEquals(-1L, small.gzipLength());
+	}
+	
+	
+	@Test public void testETag() throws Exception
+	{
+		TestAsset asset = new TestAsset("content");
+		asset.setEncoding("UTF-8");
+		assertNull(asset.getETag());
+		
+		// weak etag from length and last modified
+		asset.setLastModified(0x1000);
+		assertEquals("W/\"7-1000\"", asset.getETag());
+		asset.setLastModified(0x2000);
+		assertEquals("W/\"7-2000\"", asset.getETag());
+		
+		// strong etag from the content hash
+		asset.readContent();
+		String etag = asset.getETag();
+		assertEquals("\"9a0364b9e99bb480dd25e1f0284c8555\"", etag);
+		asset.setLastModified(0x3000);
+		assertSame(etag, asset.getETag());
+		
+		Request request 			= mock(Request.class);
+		ParamList reqHeaders 		= new ParamList(true);
+		TestResponse response 		= new TestResponse(request);
+		when(request.getHeaders()).thenReturn(reqHeaders);
+		
+		asset.write(response, true);
+		assertEquals(etag, response.getHeaders().get("ETag"));
+		assertEquals(Response.Status.SC200_OK, response.getStatus());
+		
+		// If-None-Match takes precedence over If-Modified-Since 
+		response = new TestResponse(request);
+		reqHeaders.setDate("If-Modified-Since", 0);
+		reqHeaders.set("If-None-Match", "\"other\", " + etag);
+		asset.write(response, true);
+		assertEquals(Response.Status.SC304_NOT_MODIFIED, response.getStatus());
+		
+		response = new TestResponse(request);
+		reqHeaders.set("If-None-Match", "W/" + etag.substring(0, etag.length() - 1) + "-gzip\"");
+		asset.write(response, true);
+		assertEquals(Response.Status.SC304_NOT_MODIFIED, response.getStatus());
+		
+		response = new TestResponse(request);
+		reqHeaders.set("If-None-Match", "\"other\"");
+		asset.write(response, true);
+		assertEquals(Response.Status.SC200_OK, response.getStatus());
+		assertEquals("content", response.getContentText(true));
+	}
+	
+	
+	@Test public void testRange() throws Exception
+	{
+		TestAsset asset = new TestAsset("0123456789");
+		asset.setEncoding("UTF-8");
+		asset.setLastModified(10000);
+		
+		Request request 			= mock(Request.class);
+		ParamList reqHeaders 		= new ParamList(true);
+		when(request.getHeaders()).thenReturn(reqHeaders);
+
+		// streamed and from memory
+		for (int i=0; i<2; i++)
+		{
+			assertRange(asset, request, reqHeaders, "bytes=2-4", Response.Status.PARTIAL_CONTENT, "234", "bytes 2-4/10");
+			assertRange(asset, request, reqHeaders, "bytes=8-", Response.Status.PARTIAL_CONTENT, "89", "bytes 8-9/10");
+			assertRange(asset, request, reqHeaders, "bytes=-3", Response.Status.PARTIAL_CONTENT, "789", "bytes 7-9/10");
+			assertRange(asset, request, reqHeaders, "bytes=5-100", Response.Status.PARTIAL_CONTENT, "56789", "bytes 5-9/10");
+			assertRange(asset, request, reqHeaders, "bytes=10-", Response.Status.SC416_REQUESTED_RANGE_NOT_SATISFIABLE, "", "bytes */10");
+			assertRange(asset, request, reqHeaders, "bytes=4-2", Response.Status.SC200_OK, "0123456789", null);
+			assertRange(asset, request, reqHeaders, "bytes=0-1,4-5", Response.Status.SC200_OK, "0123456789", null);
+			assertRange(asset, request, reqHeaders, "lines=1-2", Response.Status.SC200_OK, "0123456789", null);
+			asset.readContent();
+		}
+		
+		// If-Range
+		reqHeaders.set("If-Range", asset.getETag());
+		assertRange(asset, request, reqHeaders, "bytes=2-4", Response.Status.PARTIAL_CONTENT, "234", "bytes 2-4/10");
+		reqHeaders.set("If-Range", "\"other\"");
+		assertRange(asset, request, reqHeaders, "bytes=2-4", Response.Status.SC200_OK, "0123456789", null);
+		reqHeaders.set("If-Range", "Thu, 01 Jan 1970 00:00:10 GMT");
+		assertRange(asset, request, reqHeaders, "bytes=2-4", Response.Status.PARTIAL_CONTENT, "234", "bytes 2-4/10");
+	}
+	
+	
+	private void assertRange(Asset asset, Request request, ParamList reqHeaders, String range, int status, String content, String contentRange) throws Exception
+	{
+		reqHeaders.set("Range", range);
+		TestResponse response = new TestResponse(request);
+		asset.write(response, true);
+		assertEquals(status, response.getStatus());
+		assertEquals(content, response.getContentText(true));
+		assertEquals(contentRange, response.getHeaders().get("Content-Range"));
+		assertEquals("bytes", response.getHeaders().get("Accept-Ranges"));
+	}
+	
+	
+	@Test public void testFileTransfer() throws Exception
+	{
+		File source = createTempFile("txt", "UTF-8", "0123456789");
+		File target = File.createTempFile("test", "txt");
+		try
+		{
+			Asset asset = new FileAsset(source);
+			try(FileOutputStream out = new FileOutputStream(target))
+			{
+				asset.writeContent(out, 3, 4);
+			}
+			assertEquals("3456", new String(Files.readAllBytes(target.toPath())));
+		}
+		finally
+		{
+			source.delete();
+			target.delete();
+		}
+	}
+	
+	
+	@Test public void testStorage() throws Exception
+	{
+		StringBuilder s = new StringBuilder();
+		for (int i=0; i<100; i++)
+			s.append("body { color: red; }\n");
+		String data = s.toString();
+		
+		TestAsset heap = new TestAsset(data);
+		heap.readContent(Asset.Storage.HEAP);
+		assertFalse(heap.isContentOffHeap());
+		assertEquals(data, new String(heap.getContent()));
+
+		TestAsset direct = new TestAsset(data);
+		direct.setEncoding("UTF-8");
+		direct.readContent(Asset.Storage.DIRECT);
+		assertTrue(direct.isContentLoaded());
+		assertTrue(direct.isContentOffHeap());
+		assertNull(direct.getContent());
+		assertEquals(heap.getETag(), direct.getETag());
+		direct.readGzipContent();
+		assertTrue(direct.gzipLength() > 0);
+
+		Request request 			= mock(Request.class);
+		ParamList reqHeaders 		= new ParamList(true);
+		TestResponse response 		= new TestResponse(request);
+		when(request.getHeaders()).thenReturn(reqHeaders);
+		direct.write(response, true);
+		assertEquals(data, response.getContentText(true));
+		
+		File file = createTempFile("txt", "UTF-8", data);
+		try
+		{
+			FileAsset mapped = new FileAsset(file);
+			mapped.setEncoding("UTF-8");
+			mapped.readContent(Asset.Storage.MAPPED);
+			assertTrue(mapped.isContentOffHeap());
+			response = new TestResponse(request);
+			reqHeaders.set("Range", "bytes=1-3");
+			mapped.write(response, true);
+			assertEquals("ody", response.getContentText(true));
+		}
+		finally
+		{
+			file.delete();
+		}
 	}
 }
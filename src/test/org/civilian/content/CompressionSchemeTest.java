@@ -16,7 +16,18 @@
 package org.civilian.content;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
 import org.civilian.CivTest;
+import org.civilian.util.IoUtil;
 import org.junit.After;
 import org.junit.Test;
 
@@ -70,6 +81,121 @@ public class CompressionSchemeTest extends CivTest
 }
 	
 	
+	@Test public void testStreams() throws Exception
+	{
+		byte[] data = new byte[100000];
+		for (int i=0; i<data.length; i++)
+			data[i] = (byte)("abcdefghij".charAt(i % 10) + (i % 7));
+		
+		CompressionScheme.GZip gzip = new CompressionScheme.GZip(Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY, 1024);
+		assertRoundtrip(gzip, data);
+		assertRoundtrip(gzip, new byte[0]);
+		assertEquals(1, gzip.getPool().getIdleDeflaters());
+		assertEquals(1, gzip.getPool().getIdleInflaters());
+		
+		CompressionScheme.Deflate deflate = new CompressionScheme.Deflate();
+		assertRoundtrip(deflate, data);
+		assertEquals(1, deflate.getPool().getIdleDeflaters());
+		assertEquals(1, deflate.getPool().getIdleInflaters());
+		
+		// compatible with the JDK implementation
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream zout = gzip.wrap(out))
+		{
+			zout.write(data);
+		}
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())))
+		{
+			assertArrayEquals(data, IoUtil.readBytes(in));
+		}
+		out.reset();
+		try (OutputStream zout = new GZIPOutputStream(out))
+		{
+			zout.write(data);
+		}
+		try (InputStream in = gzip.wrap(new ByteArrayInputStream(out.toByteArray())))
+		{
+			assertArrayEquals(data, IoUtil.readBytes(in));
+		}
+		
+		// a corrupt trailer is detected 
+		byte[] corrupt = out.toByteArray();
+		corrupt[corrupt.length - 5]++;
+		try (InputStream in = gzip.wrap(new ByteArrayInputStream(corrupt)))
+		{
+			IoUtil.readBytes(in);
+			fail();
+		}
+		catch (ZipException e)
+		{
+		}
+		
+		// members of a multi-member stream are read as one content
+		ByteArrayOutputStream multi = new ByteArrayOutputStream();
+		multi.write(gzip("abc".getBytes("UTF-8")));
+		multi.write(gzip(data));
+		multi.write(gzip("def".getBytes("UTF-8")));
+		try (InputStream in = gzip.wrap(new ByteArrayInputStream(multi.toByteArray())))
+		{
+			byte[] content = IoUtil.readBytes(in);
+			assertEquals(data.length + 6, content.length);
+			assertEquals("abc", new String(content, 0, 3, "UTF-8"));
+			assertArrayEquals(data, Arrays.copyOfRange(content, 3, 3 + data.length));
+			assertEquals("def", new String(content, content.length - 3, 3, "UTF-8"));
+		}
+		
+		// data after a member which is not a member is rejected 
+		multi.write(1);
+		try (InputStream in = gzip.wrap(new ByteArrayInputStream(multi.toByteArray())))
+		{
+			IoUtil.readBytes(in);
+			fail();
+		}
+		catch (ZipException e)
+		{
+		}
+		
+		// pooled Deflater can't be written after finish
+		OutputStream zout = gzip.wrap(new ByteArrayOutputStream());
+		zout.close();
+		try
+		{
+			zout.write(1);
+			fail();
+		}
+		catch (IOException e)
+		{
+		}
+	}
+	
+	
+	private static byte[] gzip(byte[] data) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream zout = new GZIPOutputStream(out))
+		{
+			zout.write(data);
+		}
+		return out.toByteArray();
+	}
+	
+	
+	private void assertRoundtrip(CompressionScheme scheme, byte[] data) throws Exception
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream zout = scheme.wrap(out))
+		{
+			zout.write(data, 0, data.length / 2);
+			zout.write(data, data.length / 2, data.length - data.length / 2);
+		}
+		try (InputStream in = scheme.wrap(new ByteArrayInputStream(out.toByteArray())))
+		{
+			assertArrayEquals(data, IoUtil.readBytes(in));
+			assertEquals(-1, in.read());
+		}
+	}
+	
+	
 	private void assertMatch(CompressionScheme scheme, String accept)
 	{
 		assertEquals(scheme, CompressionScheme.match(accept));
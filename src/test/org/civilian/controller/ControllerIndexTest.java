@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.controller;
+
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.civilian.CivTest;
+import org.civilian.Controller;
+import org.civilian.Request;
+import org.civilian.annotation.Consumes;
+import org.civilian.annotation.Get;
+import org.civilian.annotation.Parameter;
+import org.civilian.annotation.Path;
+import org.civilian.annotation.Post;
+import org.civilian.annotation.Produces;
+import org.civilian.resource.PathParamMap;
+
+
+public class ControllerIndexTest extends CivTest
+{
+	public static class BaseController extends Controller
+	{
+		@Get @Produces("text/html, application/json; q=0.5") public void render()
+		{
+		}
+	}
+	
+	
+	public static class IndexedController extends BaseController
+	{
+		@Post @Consumes("application/json") public void post(@Parameter("n") int n, @Parameter("s") String s, Request request)
+		{
+		}
+		
+		@Get @Path("sub") public void sub()
+		{
+		}
+	}
+	
+	
+	@Test public void testReadWrite() throws Exception
+	{
+		ControllerService service = new ControllerService(PathParamMap.EMPTY, TYPELIB, null, null);
+
+		ControllerIndex index = new ControllerIndex();
+		index.add(service.getControllerType(IndexedController.class.getName()));
+		index.add(service.getControllerType(ControllerSignature.build(IndexedController.class.getName(), "sub")));
+		assertEquals(2, index.size());
+		
+		StringWriter out = new StringWriter();
+		index.write(out);
+		String s = out.toString();
+		
+		ControllerIndex index2 = ControllerIndex.read(new StringReader(s));
+		assertEquals(2, index2.size());
+		StringWriter out2 = new StringWriter();
+		index2.write(out2);
+		assertEquals(s, out2.toString());
+		
+		// preload into a new service
+		ControllerService service2 = new ControllerService(PathParamMap.EMPTY, TYPELIB, null, null);
+		assertEquals(2, service2.preload(index2));
+		
+		ControllerType expected = service.getControllerType(IndexedController.class.getName());
+		ControllerType actual	= service2.getControllerType(IndexedController.class.getName());
+		assertSame(actual, service2.getControllerType(IndexedController.class.getName()));
+		assertEquals(expected.getMethodCount(), actual.getMethodCount());
+		for (int i=0; i<expected.getMethodCount(); i++)
+		{
+			ControllerMethod em = expected.getMethod(i);
+			ControllerMethod am = actual.getMethod(i);
+			assertEquals(em.getJavaMethod(), am.getJavaMethod());
+			assertEquals(em.getInfo(), am.getInfo());
+			assertEquals(em.getArgCount(), am.getArgCount());
+		}
+	}
+	
+	
+	@Test public void testOutdated() throws Exception
+	{
+		String s = "c\t" + IndexedController.class.getName() + "\t-\n" + 
+			"m\t" + IndexedController.class.getName() + "\tremoved\t-\tGET\t-\t-\n";
+		ControllerIndex index = ControllerIndex.read(new StringReader(s));
+		
+		ControllerService service = new ControllerService(PathParamMap.EMPTY, TYPELIB, null, null);
+		assertEquals(0, service.preload(index));
+		// built on demand
+		assertEquals(2, service.getControllerType(IndexedController.class.getName()).getMethodCount());
+	}
+	
+	
+	@Test public void testEmptyLists() throws Exception
+	{
+		// an empty list is kept distinct from a missing list
+		String s = "c\t" + IndexedController.class.getName() + "\t-\n" + 
+			"m\t" + IndexedController.class.getName() + "\tpost\tint,java.lang.String," + Request.class.getName() + "\tPOST\t[]\t-\n";
+		ControllerIndex index = ControllerIndex.read(new StringReader(s));
+		
+		StringWriter out = new StringWriter();
+		index.write(out);
+		assertTrue(out.toString().contains("\tPOST\t[]\t-"));
+		
+		ControllerService service = new ControllerService(PathParamMap.EMPTY, TYPELIB, null, null);
+		assertEquals(1, service.preload(index));
+		ControllerMethod method = service.getControllerType(IndexedController.class.getName()).getMethod(0);
+		assertEquals(0, method.getDeclaredProduces().size());
+		assertNull(method.getDeclaredConsumes());
+		
+		index = new ControllerIndex();
+		index.add(service.getControllerType(IndexedController.class.getName()));
+		out = new StringWriter();
+		index.write(out);
+		assertTrue(out.toString().contains("\tPOST\t[]\t-"));
+	}
+	
+	
+	@Test(expected=java.io.IOException.class) public void testInvalid() throws Exception
+	{
+		ControllerIndex.read(new StringReader("x\ty"));
+	}
+}
@@ -16,6 +16,8 @@
 package org.civilian.controller;
 
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import org.civilian.CivTest;
 import org.civilian.Controller;
 import org.civilian.annotation.Get;
@@ -73,8 +75,30 @@ public class ControllerServiceTest extends CivTest
 		assertNull(service.getControllerType(Base.class.getName()));
 		assertNull(service.getControllerType((String)null));
 		
-		service.getControllerType(Derived.class.getName());
+		ControllerType type = service.getControllerType(Derived.class.getName());
+		assertNotNull(type);
+		// no class files modified: the type is reused
+		assertSame(type, service.getControllerType(Derived.class.getName()));
 
 		service.getControllerType(ControllerSignature.build(Derived.class.getName(), "path"));
 	}
+	
+	
+	@Test public void testInvokerFactory()
+	{
+		final ArrayList<Method> created = new ArrayList<>();
+		MethodInvoker.Factory factory = new MethodInvoker.Factory()
+		{
+			@Override public MethodInvoker create(Method method)
+			{
+				created.add(method);
+				return MethodInvoker.REFLECTION.create(method);
+			}
+		};
+		
+		ControllerService service = new ControllerService(PathParamMap.EMPTY, TYPELIB, null, factory, null);
+		assertNotNull(service.getControllerType(Derived.class.getName()));
+		assertEquals(1, created.size());
+		assertEquals("inheritable", created.get(0).getName());
+	}
 }
@@ -24,8 +24,11 @@ import org.civilian.Controller;
 import org.civilian.Request;
 import org.civilian.Response;
 import org.civilian.annotation.Get;
+import org.civilian.annotation.Reusable;
 import org.civilian.content.ContentType;
 import org.civilian.content.ContentTypeList;
+import org.civilian.internal.ParamList;
+import org.civilian.resource.Path;
 import org.civilian.resource.PathParamMap;
 import org.civilian.type.TypeLib;
 
@@ -77,8 +80,11 @@ public class ControllerTypeTest extends CivTest
 	{
 		ControllerType type = service_.getControllerType(TestController.class.getName());
 		
+		ParamList headers = new ParamList();
 		Request request = mock(Request.class);
 		when(request.getMethod()).thenReturn("POST");
+		when(request.getHeaders()).thenReturn(headers);
+		when(request.getRelativePath()).thenReturn(new Path("/test"));
 		
 		NegotiatedMethod negMethod = type.getMethod(request);
 		assertEquals(Response.Status.METHOD_NOT_ALLOWED, negMethod.getError());
@@ -90,12 +96,65 @@ public class ControllerTypeTest extends CivTest
 		assertNotNull(negMethod.getMethod());
 		assertNotNull("test1", negMethod.getMethod().getName());
 
-		negMethod = type.getMethod(request);
-		assertNotNull(negMethod.getMethod());
-		assertNotNull("test2", negMethod.getMethod().getName());
+		// the negotiation result is memorized
+		assertSame(negMethod, type.getMethod(request));
+		verify(request, times(1)).getAcceptedContentTypes();
+		
+		// a different accept header needs a new negotiation
+		headers.set("Accept", "text/html");
+		when(request.getAcceptedContentTypes()).thenReturn(new ContentTypeList(ContentType.TEXT_HTML));
+		NegotiatedMethod negMethod2 = type.getMethod(request);
+		assertNotSame(negMethod, negMethod2);
+		assertSame(negMethod2, type.getMethod(request));
+		verify(request, times(2)).getAcceptedContentTypes();
+
+		// an empty accept header is replaced by the extension,
+		// therefore the extension is part of the key
+		headers.set("Accept", "");
+		when(request.getRelativePath()).thenReturn(new Path("/test.json"));
+		type.getMethod(request);
+		verify(request, times(3)).getAcceptedContentTypes();
+		when(request.getRelativePath()).thenReturn(new Path("/test.html"));
+		type.getMethod(request);
+		verify(request, times(4)).getAcceptedContentTypes();
+		when(request.getRelativePath()).thenReturn(new Path("/test"));
+		
+		// multiple accept headers are not memorized
+		headers.set("Accept", "text/html");
+		headers.add("Accept", "text/plain");
+		type.getMethod(request);
+		type.getMethod(request);
+		verify(request, times(6)).getAcceptedContentTypes();
 	}
 	
 
+	@Reusable public static class ReusableController extends TestController
+	{
+	}
+	
+	
+	@Test public void testCreateController()
+	{
+		ControllerType type = service_.getControllerType(TestController.class.getName());
+		Controller c1 = type.createController();
+		assertNotSame(c1, type.createController());
+		assertSame(type, c1.getControllerType());
+
+		type = service_.getControllerType(ReusableController.class.getName());
+		c1 = type.createController();
+		assertTrue(c1 instanceof ReusableController);
+		assertSame(type, c1.getControllerType());
+		
+		// c1 is not released: a new controller is created
+		Controller c2 = type.createController();
+		assertNotSame(c1, c2);
+		
+		type.releaseController(c1);
+		assertSame(c1, type.createController());
+		assertNotSame(c1, type.createController());
+	}
+	
+	
 	@Test public void testBase()
 	{
 		ControllerType type = service_.getControllerType(Controller.class.getName());
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.controller;
+
+
+import java.lang.reflect.Method;
+import org.civilian.Controller;
+import org.civilian.annotation.Get;
+import org.civilian.annotation.Parameter;
+import org.civilian.content.ContentType;
+import org.civilian.context.test.TestApp;
+import org.civilian.context.test.TestRequest;
+import org.civilian.resource.PathParamMap;
+
+
+/**
+ * Compares the MethodInvoker factories when a TestRequest
+ * is processed by controller actions with zero, one and two arguments.
+ * Run as a Java application.
+ */
+public class MethodInvokerBenchmark
+{
+	public static class BenchController extends Controller
+	{
+		@Get public void zero()
+		{
+			count++;
+		}
+		
+		@Get public void one(@Parameter("a") String a)
+		{
+			count += a.length();
+		}
+
+		@Get public void two(@Parameter("a") String a, @Parameter("b") int b)
+		{
+			count += a.length() + b;
+		}
+		
+		public long count;
+	}
+	
+	
+	public static void main(String[] args) throws Exception
+	{
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		
+		TestApp app = new TestApp();
+		app.init();
+		TestRequest request = new TestRequest(app);
+		request.setParameter("a", "x");
+		request.setParameter("b", "2");
+		
+		MethodInvoker.Factory[] factories = { MethodInvoker.REFLECTION, MethodInvoker.METHOD_HANDLE };
+		String[] methods = { "zero", "one", "two" };
+		MethodArgFactory argFactory = new MethodArgFactory(PathParamMap.EMPTY, app.getTypeLib());
+
+		for (int round=0; round<3; round++)
+		{
+			System.out.println("round " + (round + 1) + (round == 0 ? " (warmup)" : ""));
+			for (String name : methods)
+			{
+				for (MethodInvoker.Factory factory : factories)
+				{
+					Method javaMethod = BenchController.class.getMethod(name, getParamTypes(name));
+					ControllerMethod method = ControllerMethod.create(argFactory, javaMethod, factory);
+					NegotiatedMethod negMethod = new NegotiatedMethod(method, ContentType.TEXT_PLAIN);
+					BenchController controller = new BenchController();
+					
+					long start = System.nanoTime();
+					for (int i=0; i<runs; i++)
+						controller.process(request, negMethod);
+					long time = System.nanoTime() - start;
+					
+					if (controller.getException() != null)
+						throw controller.getException();
+					System.out.printf("  %-5s %-13s %6.1f ns/request%n", name, factory, (double)time / runs);
+				}
+			}
+		}
+	}
+	
+	
+	private static Class<?>[] getParamTypes(String name)
+	{
+		switch(name)
+		{
+			case "one": return new Class<?>[] { String.class };
+			case "two": return new Class<?>[] { String.class, int.class };
+			default:	return new Class<?>[0];
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.controller;
+
+
+import java.io.IOException;
+import org.civilian.CivTest;
+import org.junit.Test;
+
+
+public class MethodInvokerTest extends CivTest
+{
+	public static class Target
+	{
+		@SuppressWarnings("unused")
+		private void none()
+		{
+			result = "none";
+		}
+
+		public String one(int n)
+		{
+			result = "one" + n;
+			return result;
+		}
+		
+		public void two(String s, Integer n)
+		{
+			result = s + n;
+		}
+		
+		public void fail(String s) throws IOException
+		{
+			throw new IOException(s);
+		}
+		
+		public void error()
+		{
+			throw new OutOfMemoryError("error");
+		}
+		
+		public void npe(String s)
+		{
+			throw new NullPointerException(s);
+		}
+		
+		public String result;
+	}
+
+	
+	@Test public void testReflection() throws Exception
+	{
+		test(MethodInvoker.REFLECTION);
+	}
+	
+	
+	@Test public void testMethodHandle() throws Exception
+	{
+		test(MethodInvoker.METHOD_HANDLE);
+	}
+	
+	
+	private void test(MethodInvoker.Factory factory) throws Exception
+	{
+		Target target = new Target();
+		
+		factory.create(findMethod(Target.class, "none")).invoke(target);
+		assertEquals("none", target.result);
+		
+		MethodInvoker one = factory.create(findMethod(Target.class, "one")); 
+		one.invoke(target, Integer.valueOf(1));
+		assertEquals("one1", target.result);
+		one.invoke(target, new Object[] { Integer.valueOf(2) });
+		assertEquals("one2", target.result);
+		
+		factory.create(findMethod(Target.class, "two")).invoke(target, new Object[] { "two", Integer.valueOf(3) });
+		assertEquals("two3", target.result);
+		
+		try
+		{
+			factory.create(findMethod(Target.class, "fail")).invoke(target, "fail");
+			fail();
+		}
+		catch(IOException e)
+		{
+			assertEquals("fail", e.getMessage());
+		}
+
+		try
+		{
+			factory.create(findMethod(Target.class, "error")).invoke(target);
+			fail();
+		}
+		catch(OutOfMemoryError e)
+		{
+			assertEquals("error", e.getMessage());
+		}
+		
+		// arguments which do not match the parameters
+		assertIllegalArg(one, target, null);
+		assertIllegalArg(one, target, "x");
+		assertIllegalArg(one, new Object(), Integer.valueOf(1));
+		
+		// exceptions of the method itself are not converted
+		try
+		{
+			factory.create(findMethod(Target.class, "npe")).invoke(target, "npe");
+			fail();
+		}
+		catch(NullPointerException e)
+		{
+			assertEquals("npe", e.getMessage());
+		}
+	}
+	
+	
+	private void assertIllegalArg(MethodInvoker invoker, Object target, Object arg) throws Exception
+	{
+		try
+		{
+			invoker.invoke(target, arg);
+			fail();
+		}
+		catch(IllegalArgumentException e)
+		{
+		}
+	}
+}
@@ -16,6 +16,7 @@
 package org.civilian.controller.classloader;
 
 
+import java.io.File;
 import org.junit.Test;
 import org.civilian.CivTest;
 import org.civilian.controller.classloader.NonDelegatingClassLoader;
@@ -56,4 +57,28 @@ public class ClassLoaderTest extends CivTest
 		Class<?> excludedClass = reloadCl.loadClass(getInnerClassName("Excluded"));
 		assertSame(getClass().getClassLoader(), excludedClass.getClassLoader()); 
 	}
+	
+	
+	@Test public void testModified() throws Exception
+	{
+		ReloadConfig config = new ReloadConfig();
+		config.includes().addPackage(getClass());
+		
+		NonDelegatingClassLoader reloadCl = config.createClassLoader(); 
+		reloadCl.loadClass(getInnerClassName("Included"));
+		assertFalse(reloadCl.isModified());
+		
+		File file = new File(getClass().getResource("ClassLoaderTest$Included.class").toURI());
+		long lastModified = file.lastModified();
+		try
+		{
+			assertTrue(file.setLastModified(lastModified - 10000));
+			assertTrue(reloadCl.isModified());
+		}
+		finally
+		{
+			file.setLastModified(lastModified);
+		}
+		assertFalse(reloadCl.isModified());
+	}
 }
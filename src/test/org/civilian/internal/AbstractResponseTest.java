@@ -20,6 +20,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Locale;
 import org.civilian.CivTest;
 import org.civilian.Resource;
@@ -28,7 +29,9 @@ import org.civilian.content.ContentType;
 import org.civilian.context.test.TestApp;
 import org.civilian.context.test.TestRequest;
 import org.civilian.context.test.TestResponse;
+import org.civilian.internal.intercept.InterceptedOutputStream;
 import org.civilian.resource.Url;
+import org.civilian.response.ResponseStreamInterceptor;
 import org.civilian.response.ResponseWriter;
 import org.civilian.template.TextTemplate;
 import org.civilian.text.LocaleService;
@@ -37,6 +40,7 @@ import org.civilian.text.keys.KeyLists;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import static org.mockito.Mockito.*;
 
 
 public class AbstractResponseTest extends CivTest
@@ -321,6 +325,24 @@ public class AbstractResponseTest extends CivTest
 	}
 	
 	
+	@Test public void testInterceptedBlockWrite() throws Exception
+	{
+		// a byte array is passed in one call to the intercepted stream
+		OutputStream original		= mock(OutputStream.class);
+		OutputStream intercepted	= mock(OutputStream.class);
+		ResponseStreamInterceptor interceptor = mock(ResponseStreamInterceptor.class);
+		when(interceptor.intercept(original)).thenReturn(intercepted);
+		
+		InterceptedOutputStream out = new InterceptedOutputStream(original, interceptor);
+		byte[] bytes = "abcdef".getBytes("UTF-8");
+		out.write(bytes, 1, 4);
+		
+		verify(intercepted).write(bytes, 1, 4);
+		verify(intercepted, never()).write(anyInt());
+		verifyZeroInteractions(original);
+	}
+	
+	
 	@Test public void testWriterIntercept() throws Exception
 	{
 		TestResponseStreamInterceptor is = new TestResponseStreamInterceptor("abc");
@@ -346,6 +368,40 @@ public class AbstractResponseTest extends CivTest
 		assertEquals("abc123z", response.getContentText(true));
 	}
 	
+	
+	@Test public void testInterceptedPreEncoded() throws Exception
+	{
+		TestResponseStreamInterceptor is = new TestResponseStreamInterceptor("abc");
+		TestResponseWriterInterceptor ir = new TestResponseWriterInterceptor("123");
+		
+		// pre-encoded text is written to the intercepted stream 
+		response.addInterceptor(is);
+		ResponseWriter out = response.getContentWriter();
+		Charset charset = out.getCharset();
+		assertNotNull(charset);
+		out.print("x", "y".getBytes(charset), charset);
+		assertEquals("abcy", response.getContentText(true));
+		
+		// also after the output was reset 
+		response.clear();
+		response.addInterceptor(is);
+		out = response.getContentWriter();
+		out.print("x", "y".getBytes(charset), charset);
+		response.resetBuffer();
+		out.print("x", "z".getBytes(charset), charset);
+		assertEquals("abcz", response.getContentText(true));
+		
+		// a writer interceptor which wraps the writer receives the text
+		ir.lazy = true;
+		response.clear();
+		response.addInterceptor(ir);
+		response.addInterceptor(is);
+		out = response.getContentWriter();
+		assertNull(out.getCharset());
+		out.print("x", "y".getBytes(charset), charset);
+		assertEquals("abcx123", response.getContentText(true));
+	}
+	
 		
 	private static TestApp app;
 	private static TestRequest request;
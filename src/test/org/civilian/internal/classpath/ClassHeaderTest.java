@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.internal.classpath;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.junit.Test;
+import org.civilian.CivTest;
+import org.civilian.Controller;
+
+
+public class ClassHeaderTest extends CivTest
+{
+	public static abstract class AbstractController extends Controller
+	{
+		public static final long LONG 		= 1234567890123L;
+		public static final double DOUBLE	= 1.5;
+		public static final String TEXT		= "äbc";
+	}
+	
+	
+	@Test public void test() throws Exception
+	{
+		ClassLoader cl = getClass().getClassLoader();
+		
+		ClassHeader header = ClassHeader.read(cl, "org/civilian/internal/classpath/ClassHeaderTest$AbstractController");
+		assertEquals("org/civilian/internal/classpath/ClassHeaderTest$AbstractController", header.getName());
+		assertEquals("org/civilian/Controller", header.getSuperName());
+		assertTrue(header.isAbstract());
+		
+		header = ClassHeader.read(cl, "org/civilian/internal/classpath/ClassHeaderTest");
+		assertEquals("org/civilian/CivTest", header.getSuperName());
+		assertFalse(header.isAbstract());
+
+		header = ClassHeader.read(cl, "org/civilian/internal/classpath/ScanListener");
+		assertTrue(header.isAbstract());
+		
+		header = ClassHeader.read(cl, "java/lang/Object");
+		if (header != null) // may not be accessible as resource
+			assertNull(header.getSuperName());
+		
+		assertNull(ClassHeader.read(cl, "org/civilian/DoesNotExist"));
+	}
+	
+	
+	@Test(expected=IOException.class) public void testInvalid() throws Exception
+	{
+		ClassHeader.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 }));
+	}
+}
@@ -60,6 +60,35 @@ public class BeanParamArgTest extends CivTest
 	}
 	
 	
+	@Test public void testError() throws Exception
+	{
+		MethodArgFactory factory = new MethodArgFactory(PathParamMap.EMPTY, new TypeLib());
+		
+		BeanParamArg arg 		= new BeanParamArg(factory, ErrorBean.class);
+		Request request 		= mock(Request.class);
+		when(request.getParameter("name")).thenReturn("theName");
+		try
+		{
+			arg.getValue(request);
+			fail();
+		}
+		catch(IllegalArgumentException e)
+		{
+			assertTrue(e.getMessage().startsWith("error when injecting value theName"));
+			assertTrue(e.getCause() instanceof UnsupportedOperationException);
+		}
+	}
+	
+	
+	public static class ErrorBean
+	{
+		public void setName(String s)
+		{
+			throw new UnsupportedOperationException(s);
+		}
+	}
+	
+	
 	public static class Bean
 	{
 		// implicit @Parameter("name") for bean property setter 
@@ -26,8 +26,16 @@ import org.junit.Test;
 public class ScanTest extends CivTest
 {
 	@Test public void testFileScan() throws Exception
+	{
+		testFileScan(false);
+		testFileScan(true);
+	}
+	
+	
+	private void testFileScan(boolean parallel) throws Exception
 	{
 		ClassPathScan scan = new ClassPathScan("org.civilian.context.servlet");
+		scan.setParallel(parallel);
 		Set<String> adapters = scan.collect(new ClassFilter()
 		{
 			@Override public boolean accept(String className)
@@ -49,8 +57,16 @@ public class ScanTest extends CivTest
 
 
 	@Test public void testJarScan() throws Exception
+	{
+		testJarScan(false);
+		testJarScan(true);
+	}
+	
+	
+	private void testJarScan(boolean parallel) throws Exception
 	{
 		ClassPathScan scan = new ClassPathScan("javax.servlet");
+		scan.setParallel(parallel);
 		Set<String> adapters = scan.collect(new ClassFilter()
 		{
 			@Override public boolean accept(String className)
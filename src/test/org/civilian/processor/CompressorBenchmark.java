@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.processor;
+
+
+import java.io.FilterOutputStream;
+import java.io.OutputStream;
+import org.civilian.asset.Asset;
+import org.civilian.context.test.TestApp;
+import org.civilian.context.test.TestRequest;
+import org.civilian.context.test.TestResponse;
+import org.civilian.internal.asset.MemoryAsset;
+
+
+/**
+ * Measures how fast a 1MB asset is written through the Compressor.
+ * The "bulk" case uses the response content stream, which passes 
+ * blocks to the compressing stream. The "byte-by-byte" case wraps the
+ * content stream into a FilterOutputStream, which reproduces the former 
+ * behavior of the intercepted response stream.
+ * Run as a Java application.
+ */
+public class CompressorBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		
+		TestApp app = new TestApp();
+		app.init();
+		TestRequest request = new TestRequest(app);
+		request.getHeaders().set("Accept-Encoding", "gzip");
+		Compressor compressor = new Compressor();
+		
+		StringBuilder s = new StringBuilder();
+		for (int i=0; s.length() < 1024*1024; i++)
+			s.append("<tr><td>row ").append(i).append("</td><td>").append(i * 31 % 1000).append("</td></tr>\n");
+		byte[] content = s.substring(0, 1024*1024).getBytes("UTF-8");
+		MemoryAsset asset = new MemoryAsset("UTF-8", content);
+
+		for (int round=0; round<3; round++)
+		{
+			System.out.println("round " + (round + 1) + (round == 0 ? " (warmup)" : ""));
+			for (boolean bulk : new boolean[] { true, false })
+			{
+				long start = System.nanoTime();
+				long size = 0;
+				for (int i=0; i<runs; i++)
+					size += write(request, compressor, asset, content, bulk);
+				long time = System.nanoTime() - start;
+				
+				System.out.printf("  %-12s %8.2f ms/MB, ratio %.2f%n", 
+					bulk ? "bulk" : "byte-by-byte", time / 1000000.0 / runs, (double)size / runs / asset.length());
+			}
+		}
+	}
+	
+	
+	private static int write(TestRequest request, Compressor compressor, Asset asset, byte[] content, boolean bulk) throws Exception
+	{
+		TestResponse response = request.getTestResponse();
+		response.clear();
+		compressor.process(request, ProcessorChain.EMPTY);
+		
+		if (bulk)
+			asset.write(response, true);
+		else
+		{
+			try (OutputStream out = new FilterOutputStream(response.getContentStream()))
+			{
+				out.write(content);
+			}
+		}
+		response.closeContent();
+		return response.getContentBytes(false).length;
+	}
+}
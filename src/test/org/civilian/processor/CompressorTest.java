@@ -1,9 +1,15 @@
 package org.civilian.processor;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
 import org.civilian.CivTest;
+import org.civilian.content.ContentType;
 import org.civilian.context.test.TestRequest;
+import org.civilian.context.test.TestResponse;
 import org.civilian.response.ResponseHeaders;
+import org.civilian.util.IoUtil;
 import org.junit.Test;
 
 
@@ -26,6 +32,8 @@ public class CompressorTest extends CivTest
 		// Accept-encoding = deflate, also modifies etag
 		request_.getTestResponse().getHeaders().set("Etag", "a");
 		assertProcess("deflate", "Accept-Encoding", "deflate", "a-deflate", (byte)120, (byte)-100);
+		request_.getTestResponse().getHeaders().set("Etag", "\"a\"");
+		assertProcess("deflate", "Accept-Encoding", "deflate", "\"a-deflate\"", (byte)120, (byte)-100);
 
 		// no compression if someone else applied a content-encoding
 		request_.getTestResponse().getHeaders().set("Content-encoding", "someotherenc");
@@ -38,6 +46,83 @@ public class CompressorTest extends CivTest
 	}
 	
 	
+	@Test public void testSelection() throws Exception
+	{
+		request_ = new TestRequest();
+		compressor_ = new Compressor();
+		compressor_.setMinSize(10);
+		
+		// known small content length
+		assertCompressed(null, 5, "abcde", false);
+
+		// known large content length
+		assertCompressed(null, 20, "abcdefghijklmnopqrst", true);
+		
+		// unknown content length: decided after buffering
+		assertCompressed(null, -1, "abc", false);
+		assertCompressed(null, -1, "abcdefghijklmnopqrst", true);
+		
+		// unknown content length: flushed before the minimum size was reached
+		assertCompressed(null, -1, "abcdefghijklmnopqrst", true, false);
+		
+		// denied types
+		assertCompressed(ContentType.IMAGE_PNG, -1, "abcdefghijklmnopqrst", false);
+		assertCompressed(new ContentType("video/mp4"), -1, "abcdefghijklmnopqrst", false);
+		
+		// allowed types
+		compressor_.setAllowedTypes(new ContentType("text/*"));
+		assertCompressed(ContentType.TEXT_CSS, -1, "abcdefghijklmnopqrst", true);
+		assertCompressed(ContentType.APPLICATION_JSON, -1, "abcdefghijklmnopqrst", false);
+		assertCompressed(null, -1, "abcdefghijklmnopqrst", false);
+
+		assertEquals(3, compressor_.getCompressedCount());
+		assertEquals(2, compressor_.getSkippedSmallCount());
+		assertEquals(1, compressor_.getSkippedFlushCount());
+		assertEquals(4, compressor_.getSkippedTypeCount());
+		assertEquals("minSize=10, compressed=3, skippedSmall=2, skippedFlush=1, skippedType=4", compressor_.getInfo());
+	}
+	
+	
+	private void assertCompressed(ContentType contentType, long length, String content, boolean compressed) throws Exception
+	{
+		assertCompressed(contentType, length, content, false, compressed);
+	}
+	
+	
+	private void assertCompressed(ContentType contentType, long length, String content, boolean flush, boolean compressed) throws Exception
+	{
+		request_.getTestResponse().clear();
+		request_.getHeaders().set("Accept-Encoding", "gzip");
+		assertFalse(compressor_.process(request_, ProcessorChain.EMPTY));
+		
+		TestResponse response = request_.getTestResponse();
+		response.setContentType(contentType);
+		if (length >= 0)
+			response.setContentLength(length);
+		
+		OutputStream out = response.getContentStream();
+		for (int i=0; i<content.length(); i++)
+		{
+			out.write(content.charAt(i));
+			if (flush && (i == 0))
+				out.flush();
+		}
+		response.closeContent();
+		
+		byte[] bytes = response.getContentBytes(false);
+		if (compressed)
+		{
+			assertEquals("gzip", response.getHeaders().get("Content-Encoding"));
+			assertEquals(content, new String(IoUtil.readBytes(new GZIPInputStream(new ByteArrayInputStream(bytes))), "UTF-8"));
+		}
+		else
+		{
+			assertNull(response.getHeaders().get("Content-Encoding"));
+			assertEquals(content, new String(bytes, "UTF-8"));
+		}
+	}
+	
+	
 	private void assertProcess(String acceptEncoding, String vary, String contentEncoding, String etag, String content) throws Exception
 	{
 		assertProcess(acceptEncoding, vary, contentEncoding, etag, content.getBytes());
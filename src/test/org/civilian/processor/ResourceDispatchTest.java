@@ -1,9 +1,9 @@
 package org.civilian.processor;
 
 
-import java.util.LinkedHashMap;
 import java.util.Map;
 import org.junit.Test;
+import org.mockito.ArgumentMatcher;
 import static org.mockito.Mockito.*;
 import org.civilian.CivTest;
 import org.civilian.Controller;
@@ -13,53 +13,58 @@ import org.civilian.controller.ControllerService;
 import org.civilian.controller.ControllerType;
 import org.civilian.resource.Path;
 import org.civilian.resource.PathParam;
+import org.civilian.resource.PathParams;
+import org.civilian.resource.RouteParams;
+import org.civilian.type.TypeLib;
 
 
 public class ResourceDispatchTest extends CivTest
 {
 	@Test public void test() throws Exception
 	{
-		Resource root 		= mock(Resource.class);
-		Resource.Tree tree 	= mock(Resource.Tree.class);
+		ControllerService service = mock(ControllerService.class);
+		Resource root 		= new Resource();
+		Resource idSegment	= new Resource(root, "id");
+		Resource idPP		= new Resource(root, PP);
 		Request request 	= mock(Request.class);
-		Resource idSegment	= mock(Resource.class);
-		Resource idPP		= mock(Resource.class);
-
-		when(root.getControllerType()).thenReturn(null);
-		when(root.getTree()).thenReturn(tree);
-		when(tree.getControllerService()).thenReturn(mock(ControllerService.class));
+		root.getTree().setControllerService(service);
 		ResourceDispatch dispatch = new ResourceDispatch(root);
 
-		// request path is "/id" during the test
-		when(request.getRelativePath()).thenReturn(new Path("/id"));
-		
 		// incomplete match
-		when(root.match("/id")).thenReturn(new Resource.Match(root, false, null));
+		when(request.getRelativePath()).thenReturn(new Path("/id/x"));
 		assertFalse(dispatch.process(request, ProcessorChain.EMPTY));
 		verify(request, times(0)).setResource(root);
 
 		// complete match, no path params
-		when(root.match("/id")).thenReturn(new Resource.Match(idSegment, true, null));
+		when(request.getRelativePath()).thenReturn(new Path("/id"));
 		assertFalse(dispatch.process(request, ProcessorChain.EMPTY));
 		verify(request).setResource(idSegment);
-		verify(request).setPathParams(null);
+		verify(request).setPathParams(RouteParams.EMPTY);
 
 		// complete match, with path params
-		Map<PathParam<?>,Object> pathParams = new LinkedHashMap<>();
-		when(root.match("/id")).thenReturn(new Resource.Match(idPP, true, pathParams));
+		when(request.getRelativePath()).thenReturn(new Path("/123"));
 		assertFalse(dispatch.process(request, ProcessorChain.EMPTY));
 		verify(request).setResource(idPP);
-		verify(request).setPathParams(pathParams);
+		verify(request).setPathParams(argThat(new ArgumentMatcher<Map<PathParam<?>,Object>>()
+		{
+			@Override public boolean matches(Object arg)
+			{
+				return Integer.valueOf(123).equals(((Map<?,?>)arg).get(PP));
+			}
+		}));
 		
 		// complete match, with path params and controllerType
 		ControllerType type  = mock(ControllerType.class);
 		Controller controller = mock(Controller.class);
-		when(idPP.getControllerType()).thenReturn(type);
+		idPP.setControllerSignature("Ctrl", null);
+		when(service.getControllerType("Ctrl")).thenReturn(type);
 		when(type.createController()).thenReturn(controller);
 		
 		assertTrue(dispatch.process(request, ProcessorChain.EMPTY));
 		verify(request, times(2)).setResource(idPP);
-		verify(request, times(2)).setPathParams(pathParams);
 		verify(controller).process(request);
 	}
+	
+	
+	private static final PathParam<Integer> PP = PathParams.forSegment("pp", TypeLib.INTEGER); 
 }
@@ -295,6 +295,93 @@ public class ResourceTest extends CivTest
 		assertEquals(true, match.completeMatch);
 		assertSame(seg, match.resource);
 	}
+
+	
+	@Test public void testMatchContext()
+	{
+		Resource root = new Resource();
+		Resource seg  = new Resource(root, "seg");
+		Resource pp1  = new Resource(seg, PP1);
+		Resource pp2  = new Resource(pp1, PP2);
+		
+		Resource.MatchContext context = new Resource.MatchContext();
+		
+		root.match("/seg", context);
+		assertEquals(true, context.completeMatch);
+		assertSame(seg, context.resource);
+		assertSame(RouteParams.EMPTY, context.takePathParams());
+		
+		root.match("/seg/a/123/x", context);
+		assertEquals(false, context.completeMatch);
+		assertSame(pp2, context.resource);
+		RouteParams params = context.takePathParams();
+		
+		root.match("/seg/b", context);
+		assertEquals(true, context.completeMatch);
+		assertSame(pp1, context.resource);
+		assertEquals("b", context.takePathParams().get(PP1));
+		
+		// params of the first match are not changed by context reuse
+		assertEquals(2, params.size());
+		assertEquals("a", params.get(PP1));
+		assertEquals(Integer.valueOf(123), params.get(PP2));
+		assertNull(params.get(PathParams.forSegment("x")));
+		assertEquals("{/{pp1}=a, /{pp2}=123}", params.toString());
+	}
+	
+	
+	@Test public void testMatchCache()
+	{
+		Resource root = new Resource();
+		Resource pp1  = new Resource(root, PP1);
+		root.getTree().setMatchCacheSize(10);
+		
+		Resource.MatchContext context = new Resource.MatchContext();
+		root.match("/a", context);
+		assertSame(pp1, context.resource);
+		RouteParams params = context.takePathParams();
+		assertEquals("a", params.get(PP1));
+		
+		root.match("/a", context);
+		assertSame(pp1, context.resource);
+		assertSame(params, context.takePathParams());
+		
+		// incomplete matches are not cached 
+		root.match("/a/b", context);
+		assertEquals(false, context.completeMatch);
+		assertEquals("size=1/10, hits=1, misses=2, evictions=0", root.getTree().getMatchCache().toString());
+		
+		// a tree change clears the cache
+		Resource seg = new Resource(root, "a");
+		root.match("/a", context);
+		assertSame(seg, context.resource);
+		assertEquals(1, root.getTree().getMatchCache().getMisses());
+		
+		root.getTree().setMatchCacheSize(0);
+		assertNull(root.getTree().getMatchCache());
+	}
+	
+	
+	@Test public void testMatchManyChildren()
+	{
+		Resource root = new Resource();
+		Resource[] segs = new Resource[200];
+		for (int i=0; i<segs.length; i++)
+			segs[i] = new Resource(root, "s" + i);
+		Resource pp1 = new Resource(root, PP1);
+		Resource sub = new Resource(segs[77], "sub");
+		
+		for (int i=0; i<segs.length; i++)
+			assertSame(segs[i], root.match("/s" + i).resource);
+
+		Resource.Match match = root.match("/s77/sub");
+		assertEquals(true, match.completeMatch);
+		assertSame(sub, match.resource);
+		
+		// segments take precedence over path params
+		assertSame(pp1, root.match("/s200").resource);
+		assertSame(pp1, root.match("/S1").resource);
+	}
 		
 	
 	@Test public void testPrint()
@@ -28,8 +28,16 @@ import org.junit.Test;
 public class ResourceScanTest extends CivTest
 {
 	@Test public void test() throws Exception
+	{
+		test(true);
+		test(false);
+	}
+	
+	
+	private void test(boolean readHeaders) throws Exception
 	{
 		ResourceScan scan = new ResourceScan("org.civilian.testcase1", new ControllerNaming(), Test1PathParams.MAP, null);
+		scan.setReadHeaders(readHeaders);
 		Resource resource = scan.run();
 		// resource.print(System.out);
 		
@@ -16,6 +16,8 @@
 package org.civilian.response;
 
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
 import org.civilian.CivTest;
 import org.junit.Test;
 
@@ -53,5 +55,30 @@ public class ResponseWriterTest extends CivTest
 	}
 	
 	
+	@Test public void testPreEncoded() throws Exception
+	{
+		Charset utf8 		= Charset.forName("UTF-8");
+		Charset latin1 		= Charset.forName("ISO-8859-1");
+		byte[] bytes		= "\u00e4".getBytes(utf8);
+		
+		// writer without stream: prints the text
+		out.print("x", "a".getBytes(utf8), utf8);
+		out.assertOut("x");
+		assertNull(out.getCharset());
+		
+		ByteArrayOutputStream stream = new ByteArrayOutputStream(); 
+		ResponseWriter rw = new ResponseWriter(stream, "utf8");
+		assertEquals(utf8, rw.getCharset());
+		
+		rw.increaseTab();
+		rw.print('<');
+		rw.println("\u00e4", bytes, utf8);
+		rw.print("\u00e4", bytes, utf8);
+		rw.print("\u00e4", "?".getBytes(latin1), latin1);
+		rw.flush();
+		assertEquals("\t<\u00e4\n\t\u00e4\u00e4", stream.toString("UTF-8"));
+	}
+	
+	
 	private static TestResponseWriter out = TestResponseWriter.create("ISO-8859-1");
 }
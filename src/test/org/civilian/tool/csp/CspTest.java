@@ -56,9 +56,23 @@ public class CspTest extends CivTest
 	}
 	
 	
-	private void assertCompile(String testCase) throws Exception
+	@Test public void testCompile6() throws Exception
 	{
-		String compiled = compile(testCase);
+		assertCompile("test6", "-preenc", "utf8");
+		assertCompile("test9", "-preenc", "UTF-8"); // no arguments and mixins, but fields for the pre-encoded text
+	}
+	
+	
+	@Test public void testCompile7() throws Exception
+	{
+		assertCompile("test7", "-sync", "false");
+		assertCompile("test8", "-sync", "false");
+	}
+	
+	
+	private void assertCompile(String testCase, String... options) throws Exception
+	{
+		String compiled = compile(testCase, options);
 		
 		File outFile = findTestFile(testCase + ".out");
 		String expected = read(outFile);
@@ -67,7 +81,7 @@ public class CspTest extends CivTest
 	}
 	
 		
-	private String compile(String testCase) throws Exception
+	private String compile(String testCase, String... options) throws Exception
 	{
 		File cspFile = findTestFile(testCase + ".csp");
 		File tmpFile = File.createTempFile("csptest", ".tmp");
@@ -77,6 +91,8 @@ public class CspTest extends CivTest
 			args.add("-v");
 			args.add("0");
 			args.add("-force");
+			for (String option : options)
+				args.add(option);
 			args.add("-out:file");
 			args.add(tmpFile.getAbsolutePath());
 			args.add(cspFile.getAbsolutePath());
@@ -127,11 +143,17 @@ public class CspTest extends CivTest
 	}
 	
 	
-	private void assertError(String file, int lineIndex, String error) throws Exception
+	@Test public void testError7() throws Exception
+	{
+		assertError("test6", -1, "unsupported pre-encoding 'xyz'", "-preenc", "xyz");
+	}
+	
+	
+	private void assertError(String file, int lineIndex, String error, String... options) throws Exception
 	{
 		try
 		{
-			compile(file);
+			compile(file, options);
 			fail("error not recognized");
 		}
 		catch(CspException e)
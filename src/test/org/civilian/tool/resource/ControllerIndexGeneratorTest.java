@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.tool.resource;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.PrintStream;
+import org.junit.Test;
+import org.civilian.CivTest;
+import org.civilian.controller.ControllerIndex;
+import org.civilian.controller.ControllerService;
+import org.civilian.testcase1.Test1App;
+import org.civilian.testcase1.Test1PathParams;
+import org.civilian.util.IoUtil;
+
+
+public class ControllerIndexGeneratorTest extends CivTest
+{
+	@Test public void testHelp() throws Exception
+	{
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+		ControllerIndexGenerator.main(new String[] {});
+		System.setOut(out);
+	}
+
+
+	@Test public void testGenerate() throws Exception
+	{
+		File file = File.createTempFile("ctrlindex", ".controllers");
+		try
+		{
+			String[] args = new String[] {
+				"-out:file", file.getAbsolutePath(),
+				Test1App.class.getName()
+			};
+			ControllerIndexGenerator.main(args);
+			
+			ControllerIndex index;
+			try(FileReader in = new FileReader(file))
+			{
+				index = ControllerIndex.read(in);
+			}
+			assertTrue(index.size() > 0);
+			
+			ControllerService service = new ControllerService(Test1PathParams.MAP, TYPELIB, null, null);
+			assertEquals(index.size(), service.preload(index));
+		}
+		finally
+		{
+			IoUtil.delete(file);
+		}
+	}
+}
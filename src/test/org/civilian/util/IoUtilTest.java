@@ -17,6 +17,7 @@ package org.civilian.util;
 
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
@@ -57,6 +58,27 @@ public class IoUtilTest extends CivTest
 	}
 	
 	
+	@Test public void testCopyRange() throws Exception
+	{
+		ByteArrayInputStream in = new ByteArrayInputStream("0123456789".getBytes());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IoUtil.skip(in, 2);
+		assertEquals(5, IoUtil.copy(in, out, 5, 2));
+		assertEquals("23456", out.toString());
+		assertEquals(3, IoUtil.copy(in, out, -1, 2));
+		assertEquals("23456789", out.toString());
+		
+		try
+		{
+			IoUtil.skip(new ByteArrayInputStream(new byte[1]), 2);
+			fail();
+		}
+		catch(IOException e)
+		{
+		}
+	}
+	
+	
 	@Test public void testRead() throws Exception
 	{
 		String[] s = IoUtil.readLines(new StringReader("abc \n\n xyz "), true);
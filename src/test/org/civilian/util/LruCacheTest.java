@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2014 Civilian Framework.
+ *
+ * Licensed under the Civilian License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.civilian-framework.org/license.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.civilian.util;
+
+
+import org.junit.Test;
+import org.civilian.CivTest;
+
+
+public class LruCacheTest extends CivTest
+{
+	@Test public void testSingleStripe()
+	{
+		LruCache<String,Integer> cache = new LruCache<>(3);
+		assertEquals(3, cache.getMaxSize());
+		
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.put("c", 3);
+		assertEquals(Integer.valueOf(1), cache.get("a")); // a is now most recently used
+		cache.put("d", 4);
+		
+		assertEquals(3, cache.size());
+		assertNull(cache.get("b"));
+		assertEquals(Integer.valueOf(3), cache.get("c"));
+		assertEquals(1, cache.getEvictions());
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		
+		assertEquals(Integer.valueOf(3), cache.putIfAbsent("c", 33));
+		assertEquals(Integer.valueOf(3), cache.remove("c"));
+		assertNull(cache.putIfAbsent("c", 33));
+		
+		assertEquals("size=3/3, hits=2, misses=1, evictions=1", cache.toString());
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	
+	@Test public void testStripes()
+	{
+		LruCache<Integer,Integer> cache = new LruCache<>(1000);
+		for (int i=0; i<2000; i++)
+			cache.put(Integer.valueOf(i), Integer.valueOf(i));
+		assertTrue(cache.size() <= 1000);
+		assertEquals(2000 - cache.size(), cache.getEvictions());
+		assertEquals(Integer.valueOf(1999), cache.get(Integer.valueOf(1999)));
+	}
+}
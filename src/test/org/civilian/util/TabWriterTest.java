@@ -89,6 +89,27 @@ public class TabWriterTest extends CivTest
 	}
 	
 	
+	@Test public void testBuffer() throws Exception
+	{
+		out = new TabWriter(stringOut, false, 4);
+		out.setLineSeparator("\n");
+		assertTrue(out.isBuffered());
+		
+		out.increaseTab();
+		out.print("ab");
+		assertEquals("", stringOut.toString());
+		out.println('c');
+		assertEquals("\tabc", stringOut.toString());
+		out.print("defgh");
+		assertEquals("\tabc\n\tdefgh", stringOut.toString());
+		out.print('i');
+		out.resetBuffer();
+		out.print("j");
+		out.flush();
+		assertOutput("\tabc\n\tdefghj");
+	}
+	
+	
 	private void assertOutput(String s)
 	{
 		assertEquals(stringOut.toString(), s);